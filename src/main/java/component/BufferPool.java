@@ -0,0 +1,87 @@
+package component;
+
+import zmq.Msg;
+import zmq.msg.MsgAllocator;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of heap receive buffers of fixed capacity
+ * Buffers are allocated on demand, released buffers are kept for reuse up to pool size
+ * <p>
+ * As ZMQ message allocator the pool makes socket decode every frame straight into a pooled buffer,
+ * frames larger than buffer capacity are allocated on heap as usual. Heap buffers are used because
+ * MessagePack unpacker wraps their arrays without copying
+ *
+ * @author Pavel Didkovskii
+ */
+class BufferPool implements MsgAllocator {
+
+    private final ArrayBlockingQueue<ByteBuffer> free;
+
+    private final int bufferSize;
+
+    private final LongAdder allocated = new LongAdder();
+
+    BufferPool(int poolSize, int bufferSize) {
+        this.free = new ArrayBlockingQueue<>(poolSize);
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return capacity of pooled buffers
+     */
+    int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return number of buffers allocated since pool creation
+     */
+    long getAllocated() {
+        return allocated.sum();
+    }
+
+    /**
+     * @return cleared buffer from pool or new one if pool is empty
+     */
+    ByteBuffer acquire() {
+        ByteBuffer buffer = free.poll();
+        if (buffer == null) {
+            allocated.increment();
+            return ByteBuffer.allocate(bufferSize);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Return buffer to pool, buffer is dropped if pool is full
+     * Any view of pooled buffer with its whole capacity, e.g. a duplicate, may be released
+     */
+    void release(ByteBuffer buffer) {
+        free.offer(buffer);
+    }
+
+    /**
+     * @return true if frame of the message is kept in pooled buffer
+     */
+    boolean isPooled(Msg msg) {
+        return msg.buf().capacity() == bufferSize;
+    }
+
+    /**
+     * Called by ZMQ IO thread for every received frame
+     */
+    @Override
+    public Msg allocate(int size) {
+        if (size > bufferSize) {
+            return new Msg(size);
+        }
+        ByteBuffer buffer = acquire();
+        buffer.limit(size);
+        return new Msg(buffer);
+    }
+}
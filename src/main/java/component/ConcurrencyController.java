@@ -0,0 +1,189 @@
+package component;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Adaptive concurrency controller
+ * Runs handler worker threads and resizes their number by AIMD algorithm:
+ * limit is increased by one while there is a backlog, handlers complete messages and their latency stays close
+ * to its baseline, multiplicatively decreased when latency grows and decreased by one when queue is empty
+ *
+ * @author Pavel Didkovskii
+ */
+class ConcurrencyController<T> {
+
+    private static final Log log = LogFactory.getLog(ConcurrencyController.class);
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double BACKOFF_RATIO = 0.75;
+
+    private static final double BASELINE_DRIFT = 1.01;
+
+    private final Source<T> source;
+
+    private final Consumer<T> handler;
+
+    private final IntSupplier queueDepth;
+
+    private final Consumer<String> decisionListener;
+
+    private final int min;
+
+    private final int max;
+
+    private final AtomicInteger workers = new AtomicInteger();
+
+    private final LongAdder handled = new LongAdder();
+
+    private final LongAdder latencyNanos = new LongAdder();
+
+    private volatile int limit;
+
+    private double baselineNanos = Double.NaN;
+
+    /**
+     * @param source           - source of work for handler
+     * @param handler          - processing logic
+     * @param queueDepth       - current number of pending units of work, i.e. items the source would return
+     * @param min              - minimal number of workers
+     * @param max              - maximal number of workers
+     * @param decisionListener - receives description of every limit change
+     */
+    ConcurrencyController(Source<T> source, Consumer<T> handler, IntSupplier queueDepth,
+                          int min, int max, Consumer<String> decisionListener) {
+        this.source = source;
+        this.handler = handler;
+        this.queueDepth = queueDepth;
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.decisionListener = decisionListener;
+        this.limit = this.min;
+    }
+
+    /**
+     * Start minimal number of workers and controller thread
+     */
+    void start() {
+        adjustWorkers();
+        new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                decide();
+                adjustWorkers();
+            }
+        }).start();
+        log.info("Concurrency controller successfully started with limit " + limit);
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Record handling of one unit of work
+     *
+     * @param nanos - handling time
+     */
+    void record(long nanos) {
+        latencyNanos.add(nanos);
+        handled.increment();
+    }
+
+    /**
+     * Compute new limit from work recorded since the previous decision and current queue depth,
+     * workers follow the limit on the next adjustWorkers()
+     *
+     * @return new limit
+     */
+    int decide() {
+        long count = handled.sumThenReset();
+        long nanos = latencyNanos.sumThenReset();
+        int depth = queueDepth.getAsInt();
+        int previous = limit;
+        double latency = count > 0 ? (double) nanos / count : Double.NaN;
+
+        if (count > 0) {
+            baselineNanos = Double.isNaN(baselineNanos) ? latency : Math.min(latency, baselineNanos * BASELINE_DRIFT);
+        }
+        if (count > 0 && latency > baselineNanos * LATENCY_TOLERANCE) {
+            limit = Math.max(min, (int) (previous * BACKOFF_RATIO));
+        } else if (count > 0 && depth > previous) {
+            // nothing completed means handlers are stuck or slow, more workers would only pile up
+            limit = Math.min(max, previous + 1);
+        } else if (depth == 0) {
+            limit = Math.max(min, previous - 1);
+        }
+
+        if (limit != previous) {
+            String decision = String.format("concurrency %d -> %d (queue=%d, latency=%.3fms, baseline=%.3fms)",
+                    previous, limit, depth, latency / 1e6, baselineNanos / 1e6);
+            log.info(decision);
+            decisionListener.accept(decision);
+        }
+        return limit;
+    }
+
+    private void adjustWorkers() {
+        while (true) {
+            int current = workers.get();
+            if (current >= limit) {
+                return;
+            }
+            if (workers.compareAndSet(current, current + 1)) {
+                new Thread(this::work).start();
+            }
+        }
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            int current = workers.get();
+            if (current > limit) {
+                if (workers.compareAndSet(current, current - 1)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                T item = source.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                long startedAt = System.nanoTime();
+                try {
+                    handler.accept(item);
+                } catch (Exception e) {
+                    log.error("An error occurred in handler: " + e.getMessage());
+                }
+                record(System.nanoTime() - startedAt);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        workers.decrementAndGet();
+    }
+
+    /**
+     * Blocking source of handler work
+     */
+    @FunctionalInterface
+    interface Source<T> {
+        T poll(long timeout, TimeUnit unit) throws InterruptedException;
+    }
+}
@@ -1,8 +1,11 @@
 package component;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
+import java.util.List;
+
 
 /**
  * MoniQue component configuration
@@ -18,24 +21,38 @@ public class Config {
     Param param;
 
     @Data
-    class Deploy {
+    static class Deploy {
 
         private Monique monique;
 
+        private Transport transport;
+
+        private Capture capture;
+
         @Data
-        class Monique {
+        static class Monique {
 
             @JsonProperty("scheduler-in")
-            private Scheduler in;
+            @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            private List<Scheduler> in;
 
             @JsonProperty("scheduler-out")
-            private Scheduler out;
+            @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            private List<Scheduler> out;
 
             private Scheduler controller;
 
+            /**
+             * Outgoing endpoint selection: "hash" (by message pid, default) or "round-robin"
+             */
+            private String routing;
+
+            @JsonProperty("ejection-time")
+            private Integer ejectionTime;
+
 
             @Data
-            class Scheduler {
+            static class Scheduler {
                 private String host;
                 private Integer comport;
                 private Integer techport;
@@ -43,6 +60,113 @@ public class Config {
 
         }
 
+        /**
+         * ZeroMQ socket options, unset values keep jeromq defaults
+         */
+        @Data
+        class Transport {
+
+            @JsonProperty("io-threads")
+            private Integer ioThreads;
+
+            private Integer linger;
+
+            @JsonProperty("send-buffer")
+            private Integer sendBuffer;
+
+            @JsonProperty("receive-buffer")
+            private Integer receiveBuffer;
+
+            @JsonProperty("tcp-keepalive")
+            private Integer tcpKeepAlive;
+
+            /**
+             * Passed to jeromq setImmediate, router sockets of several scheduler-in endpoints override it
+             * to queue messages only to connected endpoints
+             */
+            private Boolean immediate;
+
+            @JsonProperty("send-timeout")
+            private Integer sendTimeout;
+
+            @JsonProperty("receive-timeout")
+            private Integer receiveTimeout;
+
+            /**
+             * Receive data messages into pooled buffers, see MoniqueTaggedMessage#getPayload()
+             */
+            @JsonProperty("pooled-receive")
+            private Boolean pooledReceive;
+
+            @JsonProperty("pool-size")
+            private Integer poolSize;
+
+            @JsonProperty("pool-buffer-size")
+            private Integer poolBufferSize;
+
+            @JsonProperty("decode-threads")
+            private Integer decodeThreads;
+
+            /**
+             * Capacity of queues between receive pipeline stages
+             */
+            @JsonProperty("stage-capacity")
+            private Integer stageCapacity;
+
+            /**
+             * Capacity of incoming queue, unbounded if not set
+             */
+            @JsonProperty("incoming-capacity")
+            private Integer incomingCapacity;
+
+            /**
+             * Capacity of outgoing queue, 10000 if not set
+             */
+            @JsonProperty("outgoing-capacity")
+            private Integer outgoingCapacity;
+
+            private Channel communication;
+
+            private Channel controller;
+
+            private Channel technical;
+
+            private Channel error;
+
+            private Channel monitoring;
+
+
+            @Data
+            class Channel {
+                private Integer sndhwm;
+                private Integer rcvhwm;
+                private Long affinity;
+            }
+
+        }
+
+        /**
+         * Traffic capture for replay by TrafficReplay, disabled if section is absent
+         */
+        @Data
+        class Capture {
+
+            private String path;
+
+            @JsonProperty("segment-size")
+            private Integer segmentSize;
+
+            /**
+             * Number of segments kept on disk, the oldest one is deleted when capture moves to a new one, 16 if not set
+             */
+            @JsonProperty("max-segments")
+            private Integer maxSegments;
+
+            private Boolean receive;
+
+            private Boolean send;
+        }
+
     }
 
     @Data
@@ -51,6 +175,24 @@ public class Config {
         private String creator;
         private Integer frequency;
         private Integer port;
+
+        @JsonProperty("min-concurrency")
+        private Integer minConcurrency;
+
+        @JsonProperty("max-concurrency")
+        private Integer maxConcurrency;
+
+        /**
+         * Identical errors within window are sent once with their count
+         */
+        @JsonProperty("error-window")
+        private Integer errorWindow;
+
+        @JsonProperty("error-rate")
+        private Double errorRate;
+
+        @JsonProperty("error-burst")
+        private Integer errorBurst;
     }
 
 }
@@ -21,6 +21,8 @@ public class Constant {
 
     public static final String JSON_TYPE = "JSON";
 
+    public static final String MSGPACK_TYPE = "MessagePack";
+
     public static final String MONITORING = "monitoring";
 
 }
@@ -1,14 +1,29 @@
 package component;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import org.msgpack.core.MessageBufferPacker;
+import org.msgpack.core.MessageFormat;
 import org.msgpack.core.MessagePack;
+import org.msgpack.core.MessagePacker;
+import org.msgpack.core.MessageUnpacker;
+import org.msgpack.core.buffer.ArrayBufferInput;
 import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.msgpack.value.ValueType;
 import org.msgpack.value.Variable;
+import protocol.MoniqueMessage;
+import protocol.MoniqueTaggedMessage;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+
+import static component.Constant.MSGPACK_TYPE;
 
 /**
  * Utility class
@@ -18,6 +33,11 @@ import java.nio.charset.StandardCharsets;
  */
 public class Converter {
 
+    private static final int ENVELOPE_SIZE = 9;
+
+    private static final ObjectMapper messagePackMapper = new ObjectMapper(new MessagePackFactory())
+            .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
     public static byte[] objectToByteArray(Object o) throws JsonProcessingException {
         return new ObjectMapper().writeValueAsBytes(o);
     }
@@ -50,6 +70,228 @@ public class Converter {
         return new ObjectMapper(new MessagePackFactory()).readValue(data, clazz);
     }
 
+    /**
+     * @param o - payload object for MessagePack encoding
+     * @return byte array which can be used as data of message with MSGPACK_TYPE encoding
+     * @throws IOException
+     */
+    public static byte[] payloadToMessagePack(Object o) throws IOException {
+        return messagePackMapper.writeValueAsBytes(o);
+    }
+
+    /**
+     * @param data - data of message with MSGPACK_TYPE encoding
+     * @return - deserialized payload
+     * @throws IOException
+     */
+    public static <T> T payloadFromMessagePack(byte[] data, Class<T> clazz) throws IOException {
+        return messagePackMapper.readValue(data, clazz);
+    }
+
+    /**
+     * @param data - payload of pooled message with MSGPACK_TYPE encoding
+     * @return - deserialized payload
+     * @throws IOException
+     */
+    public static <T> T payloadFromMessagePack(ByteBuffer data, Class<T> clazz) throws IOException {
+        return messagePackMapper.readValue(new ByteBufferBackedInputStream(data.duplicate()), clazz);
+    }
+
+    /**
+     * Pack message envelope with streaming packer
+     * Data of MSGPACK_TYPE messages is written inline as MessagePack value, otherwise as binary
+     *
+     * @param message - MoniQue message
+     * @return byte array
+     * @throws IOException
+     */
+    static byte[] messageToMessagePack(MoniqueMessage message) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessagePacker packer = packEnvelope(out, message);
+        byte[] data = message.getData();
+        if (data == null) {
+            packer.packNil();
+        } else if (MSGPACK_TYPE.equals(message.getEncoding())) {
+            packer.writePayload(data);
+        } else {
+            packer.packBinaryHeader(data.length);
+            packer.writePayload(data);
+        }
+        packer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Pack message envelope and serialize payload inline into the same stream
+     * Message data is ignored, encoding of message is expected to be MSGPACK_TYPE
+     *
+     * @param message - MoniQue message
+     * @param payload - object to be written as message data
+     * @return byte array
+     * @throws IOException
+     */
+    static byte[] messageToMessagePack(MoniqueMessage message, Object payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MessagePacker packer = packEnvelope(out, message);
+        packer.flush();
+        messagePackMapper.writeValue(out, payload);
+        packer.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Unpack message envelope with streaming unpacker
+     * Inline data of MSGPACK_TYPE message is kept as its raw bytes without intermediate decoding,
+     * binary data and string data of other encodings are taken as their bytes
+     *
+     * @param data - byte array with packed message
+     * @return - MoniQue message
+     * @throws IOException
+     */
+    static MoniqueMessage messageFromMessagePack(byte[] data) throws IOException {
+        try (MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(data)) {
+            return unpackEnvelope(unpacker, (from, to) -> Arrays.copyOfRange(data, from, to));
+        }
+    }
+
+    /**
+     * Unpack message envelope directly from receive buffer
+     * Message data is not copied, tagged message payload is a view over the buffer
+     * which stays valid until the message is released
+     *
+     * @param tag      - MoniQue message tag
+     * @param buffer   - buffer with packed message between its position and limit
+     * @param recycler - called when the message is released by all of its holders
+     * @return - tagged MoniQue message without data, see {@link MoniqueTaggedMessage#getPayload()}
+     * @throws IOException
+     */
+    static MoniqueTaggedMessage taggedMessageFromMessagePack(String tag, ByteBuffer buffer, Runnable recycler)
+            throws IOException {
+        try (MessageUnpacker unpacker = newUnpacker(buffer.duplicate())) {
+            return unpackTaggedMessage(unpacker, tag, buffer, recycler);
+        }
+    }
+
+    private static MoniqueTaggedMessage unpackTaggedMessage(MessageUnpacker unpacker, String tag, ByteBuffer buffer,
+                                                            Runnable recycler) throws IOException {
+        int[] range = {-1, -1};
+        MoniqueMessage message = unpackEnvelope(unpacker, (from, to) -> {
+            range[0] = from;
+            range[1] = to;
+            return null;
+        });
+        ByteBuffer payload = null;
+        if (range[0] >= 0) {
+            payload = buffer.duplicate();
+            payload.limit(buffer.position() + range[1]).position(buffer.position() + range[0]);
+            payload = payload.slice().asReadOnlyBuffer();
+        }
+        return new MoniqueTaggedMessage(tag, message, payload, recycler);
+    }
+
+    /**
+     * msgpack-core can't wrap direct buffers on JDK 9+, so they are read as a stream through a new heap chunk
+     */
+    private static MessageUnpacker newUnpacker(ByteBuffer buffer) {
+        if (buffer.isDirect()) {
+            return MessagePack.newDefaultUnpacker(new ByteBufferBackedInputStream(buffer));
+        }
+        return MessagePack.newDefaultUnpacker(buffer);
+    }
+
+    /**
+     * Unpacker of tagged messages which keeps its state between messages, one per decode thread
+     * Messages in heap buffers are unpacked in place, so only the message and its envelope fields are allocated
+     */
+    static class TaggedMessageUnpacker {
+
+        private final ArrayBufferInput input = new ArrayBufferInput(new byte[0]);
+
+        private final MessageUnpacker unpacker = MessagePack.newDefaultUnpacker(input);
+
+        /**
+         * @see Converter#taggedMessageFromMessagePack(String, ByteBuffer, Runnable)
+         */
+        MoniqueTaggedMessage unpack(String tag, ByteBuffer buffer, Runnable recycler) throws IOException {
+            if (!buffer.hasArray()) {
+                return taggedMessageFromMessagePack(tag, buffer, recycler);
+            }
+            input.reset(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            unpacker.reset(input);
+            return unpackTaggedMessage(unpacker, tag, buffer, recycler);
+        }
+    }
+
+    private static MoniqueMessage unpackEnvelope(MessageUnpacker unpacker, BiFunction<Integer, Integer, byte[]> data)
+            throws IOException {
+        String id = null, pid = null, creator = null, spec = null, encoding = null, type = null;
+        Integer createdAt = null, expiresAt = null;
+        // data may precede encoding in the map, so its range is resolved after the whole envelope is read
+        int rawFrom = -1, valueFrom = -1, to = -1;
+        ValueType dataType = null;
+        int size = unpacker.unpackMapHeader();
+        for (int i = 0; i < size; i++) {
+            String key = unpacker.unpackString();
+            if (unpacker.getNextFormat() == MessageFormat.NIL) {
+                unpacker.unpackNil();
+                continue;
+            }
+            switch (key) {
+                case "id":
+                    id = unpacker.unpackString();
+                    break;
+                case "pid":
+                    pid = unpacker.unpackString();
+                    break;
+                case "creator":
+                    creator = unpacker.unpackString();
+                    break;
+                case "created_at":
+                    createdAt = unpacker.unpackInt();
+                    break;
+                case "expires_at":
+                    expiresAt = unpacker.unpackInt();
+                    break;
+                case "spec":
+                    spec = unpacker.unpackString();
+                    break;
+                case "encoding":
+                    encoding = unpacker.unpackString();
+                    break;
+                case "type":
+                    type = unpacker.unpackString();
+                    break;
+                case "data":
+                    rawFrom = (int) unpacker.getTotalReadBytes();
+                    dataType = unpacker.getNextFormat().getValueType();
+                    if (dataType == ValueType.BINARY || dataType == ValueType.STRING) {
+                        int length = dataType == ValueType.BINARY ?
+                                unpacker.unpackBinaryHeader() : unpacker.unpackRawStringHeader();
+                        valueFrom = (int) unpacker.getTotalReadBytes();
+                        unpacker.readPayloadAsReference(length);
+                    } else {
+                        unpacker.skipValue();
+                    }
+                    to = (int) unpacker.getTotalReadBytes();
+                    break;
+                default:
+                    unpacker.skipValue();
+            }
+        }
+        byte[] payload = null;
+        if (dataType == ValueType.BINARY) {
+            payload = data.apply(valueFrom, to);
+        } else if (MSGPACK_TYPE.equals(encoding)) {
+            payload = data.apply(rawFrom, to);
+        } else if (dataType == ValueType.STRING) {
+            // JSON and other text data sent as string is taken as its UTF-8 bytes, as Jackson codec did
+            payload = data.apply(valueFrom, to);
+        } else if (dataType != null) {
+            throw new IOException("Data of " + encoding + " message has to be binary or string, got " + dataType);
+        }
+        return new MoniqueMessage(id, pid, creator, createdAt, expiresAt, spec, encoding, type, payload);
+    }
+
     /**
      * @param data - UTF-8 String converted to byte array
      * @return - decoded String
@@ -58,6 +300,39 @@ public class Converter {
         return new String(data, StandardCharsets.UTF_8);
     }
 
+    private static MessagePacker packEnvelope(ByteArrayOutputStream out, MoniqueMessage message) throws IOException {
+        MessagePacker packer = MessagePack.newDefaultPacker(out);
+        packer.packMapHeader(ENVELOPE_SIZE);
+        packStringField(packer, "id", message.getId());
+        packStringField(packer, "pid", message.getPid());
+        packStringField(packer, "creator", message.getCreator());
+        packIntegerField(packer, "created_at", message.getCreatedAt());
+        packIntegerField(packer, "expires_at", message.getExpiresAt());
+        packStringField(packer, "spec", message.getSpec());
+        packStringField(packer, "encoding", message.getEncoding());
+        packStringField(packer, "type", message.getType());
+        packer.packString("data");
+        return packer;
+    }
+
+    private static void packStringField(MessagePacker packer, String key, String value) throws IOException {
+        packer.packString(key);
+        if (value == null) {
+            packer.packNil();
+        } else {
+            packer.packString(value);
+        }
+    }
+
+    private static void packIntegerField(MessagePacker packer, String key, Integer value) throws IOException {
+        packer.packString(key);
+        if (value == null) {
+            packer.packNil();
+        } else {
+            packer.packInt(value);
+        }
+    }
+
     private static String stringFromMessagePack(byte[] data) throws IOException {
         return MessagePack.newDefaultUnpacker(data).unpackString();
     }
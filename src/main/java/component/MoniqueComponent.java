@@ -1,14 +1,21 @@
 package component;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import component.Config.Deploy.Monique;
+import component.Config.Deploy.Monique.Scheduler;
+import component.Config.Deploy.Transport;
+import component.Config.Deploy.Transport.Channel;
 import exception.InvalidValueException;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
 import org.zeromq.ZContext;
 import org.zeromq.ZFrame;
 import org.zeromq.ZMQ;
@@ -20,15 +27,25 @@ import protocol.MoniqueTaggedMessage;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
 
 import static component.Constant.*;
 import static component.Converter.*;
 import static component.TagUtils.*;
+import static protocol.ErrorCodes.COMPONENT_ERROR;
 import static protocol.ErrorCodes.TECHNICAL_ERROR;
 
 /**
@@ -43,11 +60,36 @@ public abstract class MoniqueComponent {
 
     private static final Log log = LogFactory.getLog(MoniqueComponent.class);
 
+    private static final long DEFAULT_EJECTION_TIME = 5000;
+
+    private static final int DEFAULT_OUTGOING_CAPACITY = 10000;
+
+    private static final int DEFAULT_POOL_SIZE = 1024;
+
+    private static final int DEFAULT_POOL_BUFFER_SIZE = 64 * 1024;
+
+    private static final int DEFAULT_DECODE_THREADS = 1;
+
+    private static final int DEFAULT_STAGE_CAPACITY = 1024;
+
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private static final int DEFAULT_MAX_SEGMENTS = 16;
+
+    private static final long DEFAULT_ERROR_WINDOW = 1000;
+
+    private static final double DEFAULT_ERROR_RATE = 10;
+
+    private static final int MAX_PENDING_ERRORS = 1000;
+
     private static final LinkedBlockingQueue<IdentifiedMoniqueError> errorQueue = new LinkedBlockingQueue<>();
 
-    private static final LinkedBlockingQueue<MoniqueTaggedMessage> incoming = new LinkedBlockingQueue<>();
+    private static volatile LinkedBlockingQueue<MoniqueTaggedMessage> incoming = new LinkedBlockingQueue<>();
+
+    private static volatile LinkedBlockingQueue<Pair<MoniqueMessage, CompletableFuture<Boolean>>> outgoing =
+            new LinkedBlockingQueue<>(DEFAULT_OUTGOING_CAPACITY);
 
-    private static final LinkedBlockingQueue<Pair<MoniqueMessage, CompletableFuture<Boolean>>> outgoing = new LinkedBlockingQueue<>();
+    private static final LinkedBlockingQueue<String> monitoringEvents = new LinkedBlockingQueue<>();
 
     private static final List<Thread> communicationThreads = new ArrayList<>();
 
@@ -55,6 +97,12 @@ public abstract class MoniqueComponent {
 
     private static Config config;
 
+    private static TrafficCapture receiveCapture;
+
+    static volatile ReceivePipeline receivePipeline;
+
+    private static TrafficCapture sendCapture;
+
     private static volatile Boolean isCommunicationAlive = false;
 
     private static Boolean started = false;
@@ -95,6 +143,7 @@ public abstract class MoniqueComponent {
     public synchronized void start() throws InterruptedException {
         if (!started) {
             setConfig();
+            initCapture();
             initTechThread();
             initErrorThread();
             initCommunicationThread();
@@ -107,6 +156,8 @@ public abstract class MoniqueComponent {
 
     /**
      * Push message to outgoing queue
+     *
+     * @throws IllegalStateException if outgoing queue is full
      */
     protected static void sendMoniqueMessage(MoniqueMessage message) {
         outgoing.add(Pair.of(message, null));
@@ -114,11 +165,36 @@ public abstract class MoniqueComponent {
 
     /**
      * Push message and future to outgoing queue
+     *
+     * @throws IllegalStateException if outgoing queue is full
      */
     protected static void sendMoniqueMessage(MoniqueMessage message, CompletableFuture<Boolean> future) {
         outgoing.add(Pair.of(message, future));
     }
 
+    /**
+     * Push message to outgoing queue waiting for free space if necessary
+     * Outgoing queue fills up while PUSH socket high-water mark is reached
+     *
+     * @return false if queue is still full after timeout
+     * @throws InterruptedException
+     */
+    protected static boolean trySendMoniqueMessage(MoniqueMessage message, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return outgoing.offer(Pair.of(message, null), timeout, unit);
+    }
+
+    /**
+     * Push message and future to outgoing queue waiting for free space if necessary
+     *
+     * @return false if queue is still full after timeout
+     * @throws InterruptedException
+     */
+    protected static boolean trySendMoniqueMessage(MoniqueMessage message, CompletableFuture<Boolean> future,
+                                                   long timeout, TimeUnit unit) throws InterruptedException {
+        return outgoing.offer(Pair.of(message, future), timeout, unit);
+    }
+
     /**
      * Push message to error queue
      */
@@ -128,6 +204,7 @@ public abstract class MoniqueComponent {
 
     /**
      * Receive and remove message from incoming queue and block it if empty
+     * Messages received in pooled mode have to be released after processing
      *
      * @throws InterruptedException
      */
@@ -139,8 +216,208 @@ public abstract class MoniqueComponent {
         return incoming.poll(time, unit);
     }
 
+    /**
+     * Receive and remove up to max messages from incoming queue
+     * Waits until batch is full or timeout elapses, returns available messages without waiting if batch is full
+     *
+     * @param max     - maximal batch size, has to be positive
+     * @param timeout - maximal time to wait for messages, zero to take only available ones
+     * @param unit    - time unit of timeout
+     * @return received messages, empty if nothing arrived within timeout
+     * @throws InterruptedException
+     * @throws IllegalArgumentException if max is not positive or timeout is negative
+     */
+    protected static List<MoniqueTaggedMessage> receiveBatch(int max, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return receiveBatch(incoming, max, timeout, unit);
+    }
+
+    static <T> List<T> receiveBatch(BlockingQueue<T> queue, int max, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        validateBatch(max, timeout);
+        List<T> batch = new ArrayList<>(max);
+        fillBatch(queue, batch, max, System.nanoTime() + unit.toNanos(timeout));
+        return batch;
+    }
+
+    /**
+     * Wait for the first message up to idle timeout, then for the rest of batch up to timeout
+     * Unlike receiveBatch() it blocks on empty queue even with zero timeout, so idle workers don't spin
+     *
+     * @return batch of at least one message or null if nothing arrived within idle timeout
+     */
+    static <T> List<T> pollBatch(BlockingQueue<T> queue, int max, long timeout, TimeUnit unit,
+                                 long idleTimeout, TimeUnit idleUnit) throws InterruptedException {
+        T first = queue.poll(idleTimeout, idleUnit);
+        if (first == null) {
+            return null;
+        }
+        List<T> batch = new ArrayList<>(max);
+        batch.add(first);
+        fillBatch(queue, batch, max, System.nanoTime() + unit.toNanos(timeout));
+        return batch;
+    }
+
+    private static <T> void fillBatch(BlockingQueue<T> queue, List<T> batch, int max, long deadline)
+            throws InterruptedException {
+        while (batch.size() < max) {
+            if (queue.drainTo(batch, max - batch.size()) > 0) {
+                continue;
+            }
+            long left = deadline - System.nanoTime();
+            T message = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+            if (message == null) {
+                break;
+            }
+            batch.add(message);
+        }
+    }
+
+    /**
+     * Publisher of incoming messages with demand-driven backpressure
+     * Messages are taken from incoming queue only on subscriber demand. Backpressure reaches MoniQue only
+     * when transport incoming-capacity is set: incoming queue is unbounded by default, so without it a slow
+     * subscriber doesn't throttle reading from socket and received messages pile up in memory
+     * Subscriber has to release delivered messages
+     *
+     * @return publisher, every subscriber receives its share of incoming messages
+     */
+    protected static Publisher<MoniqueTaggedMessage> incomingPublisher() {
+        return new MoniquePublisher((timeout, unit) -> incoming.poll(timeout, unit));
+    }
+
+    /**
+     * Subscriber which sends published messages to MoniQue
+     * Demand is limited by window of messages which are requested but not handed over to socket yet,
+     * delivery waits while outgoing queue is full
+     *
+     * @param window - maximal number of messages in flight
+     * @return subscriber for single publisher
+     */
+    protected static Subscriber<MoniqueMessage> outgoingSubscriber(int window) {
+        return new MoniqueSubscriber((message, future) -> outgoing.put(Pair.of(message, future)), window);
+    }
+
+    /**
+     * @return occupancy of receive pipeline stages, empty before communication is started
+     */
+    protected static List<StageStatistics> getReceiveStatistics() {
+        ReceivePipeline pipeline = receivePipeline;
+        return pipeline != null ? pipeline.statistics() : new ArrayList<>();
+    }
+
+    /**
+     * @return coalescing and rate limiting statistics of error channel
+     */
+    protected static ErrorStatistics getErrorStatistics() {
+        return ErrorManager.getInstance().statistics();
+    }
+
+    /**
+     * Process incoming messages with handler in worker threads
+     * Number of workers is adjusted at runtime by queue depth and handler latency
+     * within min-concurrency and max-concurrency params, handler errors are pushed to error queue
+     * Message is released after handler returns, handler has to retain it to keep payload for later use
+     *
+     * @param handler - message processing logic
+     */
+    protected static void handleMessages(Consumer<MoniqueTaggedMessage> handler) {
+        startController(incoming::poll, incoming::size, message -> {
+            try {
+                handler.accept(message);
+            } catch (Exception e) {
+                sendErrorMessage(new MoniqueError(COMPONENT_ERROR.getCode(), e.getMessage()),
+                        message.getMoniqueMessage().getPid());
+            } finally {
+                message.release();
+            }
+        });
+    }
+
+    /**
+     * Process incoming messages in batches with handler in worker threads
+     * Handler receives up to max messages or messages which arrived within timeout after the first one,
+     * never an empty batch. Idle workers block on empty queue, so zero timeout is fine
+     * Concurrency, errors and release of messages are handled as in handleMessages(), a batch is a unit of work
+     * for concurrency controller: its latency is the latency of the whole batch and queue depth is counted
+     * in full batches, so backlog is compared with number of workers which could take it
+     *
+     * @param max     - maximal batch size
+     * @param timeout - time to wait for batch to fill up after its first message
+     * @param unit    - time unit of timeout
+     * @param handler - batch processing logic
+     * @throws IllegalArgumentException if max is not positive or timeout is negative
+     */
+    protected static void handleBatches(int max, long timeout, TimeUnit unit,
+                                        Consumer<List<MoniqueTaggedMessage>> handler) {
+        validateBatch(max, timeout);
+        ConcurrencyController.Source<List<MoniqueTaggedMessage>> source = (idleTimeout, idleUnit) ->
+                pollBatch(incoming, max, timeout, unit, idleTimeout, idleUnit);
+        startController(source, () -> (incoming.size() + max - 1) / max, batch -> {
+            try {
+                handler.accept(batch);
+            } catch (Exception e) {
+                batch.forEach(message -> sendErrorMessage(new MoniqueError(COMPONENT_ERROR.getCode(), e.getMessage()),
+                        message.getMoniqueMessage().getPid()));
+            } finally {
+                batch.forEach(MoniqueTaggedMessage::release);
+            }
+        });
+    }
+
+    private static void validateBatch(int max, long timeout) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("Batch size has to be positive, got " + max);
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Batch timeout must not be negative, got " + timeout);
+        }
+    }
+
+    private static <T> void startController(ConcurrencyController.Source<T> source, IntSupplier queueDepth,
+                                            Consumer<T> handler) {
+        Integer min = config.getParam().getMinConcurrency();
+        Integer max = config.getParam().getMaxConcurrency();
+        new ConcurrencyController<>(source, handler, queueDepth,
+                min != null ? min : 1,
+                max != null ? max : Runtime.getRuntime().availableProcessors(),
+                monitoringEvents::add).start();
+    }
+
     private void setConfig() {
         config = createConfiguration();
+        Transport transport = config.getDeploy().getTransport();
+        if (config.getDeploy().getMonique().getIn().size() > 1 &&
+                (transport == null || transport.getSendTimeout() == null)) {
+            throw new IllegalStateException("transport.send-timeout is required with several scheduler-in " +
+                    "endpoints, otherwise unavailable endpoint blocks sending instead of being ejected");
+        }
+        if (transport != null && transport.getIncomingCapacity() != null) {
+            incoming = new LinkedBlockingQueue<>(transport.getIncomingCapacity());
+        }
+        if (transport != null && transport.getOutgoingCapacity() != null) {
+            LinkedBlockingQueue<Pair<MoniqueMessage, CompletableFuture<Boolean>>> queue =
+                    new LinkedBlockingQueue<>(transport.getOutgoingCapacity());
+            outgoing.drainTo(queue);
+            outgoing = queue;
+        }
+    }
+
+    /**
+     * Open traffic capture if it is configured, received and sent messages share the same segment files
+     */
+    private void initCapture() {
+        Config.Deploy.Capture settings = config.getDeploy().getCapture();
+        if (settings == null) {
+            return;
+        }
+        TrafficCapture capture = new TrafficCapture(settings.getPath(),
+                settings.getSegmentSize() != null ? settings.getSegmentSize() : DEFAULT_SEGMENT_SIZE,
+                settings.getMaxSegments() != null ? settings.getMaxSegments() : DEFAULT_MAX_SEGMENTS);
+        receiveCapture = Boolean.FALSE.equals(settings.getReceive()) ? null : capture;
+        sendCapture = Boolean.FALSE.equals(settings.getSend()) ? null : capture;
+        Runtime.getRuntime().addShutdownHook(new Thread(capture::close));
+        log.info("Traffic capture is written to " + settings.getPath());
     }
 
     private void runAsync() {
@@ -186,47 +463,51 @@ public abstract class MoniqueComponent {
          * @param specifications - list of available specifications which will be accepted by listener
          */
         private void initCommunicationThreads(List<String> specifications) {
+            Transport settings = config.getDeploy().getTransport();
+            ReceivePipeline pipeline = new ReceivePipeline(specifications,
+                    settings != null && settings.getDecodeThreads() != null ?
+                            settings.getDecodeThreads() : DEFAULT_DECODE_THREADS,
+                    settings != null && settings.getStageCapacity() != null ?
+                            settings.getStageCapacity() : DEFAULT_STAGE_CAPACITY,
+                    incoming, receiveCapture);
+            receivePipeline = pipeline;
 
             communicationThreads.add(new Thread(() -> {
-                try (ZContext context = new ZContext()) {
-                    ZMQ.Socket messageSub = context.createSocket(ZMQ.SUB);
-                    messageSub.subscribe("");
-                    messageSub.connect("tcp://" + config.getDeploy().getMonique().getOut().getHost() +
-                            ":" + config.getDeploy().getMonique().getOut().getComport());
-                    while (!Thread.currentThread().isInterrupted()) {
-                        ZMsg zMsg = ZMsg.recvMsg(messageSub);
-                        ZFrame tagFrame = zMsg.getFirst();
-                        try {
-                            String tag = getStringFromBytes(tagFrame.getData());
-                            if (specifications.contains(getTagPart(tag, TagPart.SPEC))) {
-                                ZFrame messageFrame = zMsg.getLast();
-                                incoming.add(new MoniqueTaggedMessage(
-                                        tag, objectFromMessagePack(messageFrame.getData(), MoniqueMessage.class)));
-                            }
-                        } catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
+                try (ZContext context = createContext()) {
+                    ZMQ.Socket messageSub = createSocket(context, ZMQ.SUB, Transport::getCommunication);
+                    Transport transport = config.getDeploy().getTransport();
+                    BufferPool pool = null;
+                    if (transport != null && Boolean.TRUE.equals(transport.getPooledReceive())) {
+                        pool = new BufferPool(
+                                transport.getPoolSize() != null ? transport.getPoolSize() : DEFAULT_POOL_SIZE,
+                                transport.getPoolBufferSize() != null ?
+                                        transport.getPoolBufferSize() : DEFAULT_POOL_BUFFER_SIZE);
+                        // allocator is taken by connections, so it has to be set before connect
+                        messageSub.setMsgAllocator(pool);
                     }
+                    messageSub.subscribe("");
+                    schedulerAddresses(config.getDeploy().getMonique().getOut()).forEach(messageSub::connect);
+                    pipeline.read(messageSub, pool);
                 }
             }));
+            communicationThreads.addAll(pipeline.getThreads());
 
             communicationThreads.add(new Thread(() -> {
-                try (ZContext context = new ZContext()) {
-                    ZMQ.Socket messageSender = context.createSocket(ZMQ.PUSH);
-                    messageSender.connect("tcp://" + config.getDeploy().getMonique().getIn().getHost() +
-                            ":" + config.getDeploy().getMonique().getIn().getComport());
-                    processIncomingMessage(messageSender);
+                try (ZContext context = createContext()) {
+                    SchedulerRouter router = createRouter(() ->
+                            createSocket(context, ZMQ.PUSH, Transport::getCommunication));
+                    processIncomingMessage(router::send);
                 }
             }));
 
             if (config.getDeploy().getMonique().getController() != null &&
                     config.getParam().getPort() != null) {
                 communicationThreads.add(new Thread(() -> {
-                    try (ZContext context = new ZContext()) {
-                        ZMQ.Socket messageSender = context.createSocket(ZMQ.PULL);
+                    try (ZContext context = createContext()) {
+                        ZMQ.Socket messageSender = createSocket(context, ZMQ.PULL, Transport::getController);
                         messageSender.connect("tcp://" + config.getDeploy().getMonique().getController().getHost() +
                                 ":" + config.getParam().getPort());
-                        processIncomingMessage(messageSender);
+                        processIncomingMessage((key, tag, data) -> sendTagged(messageSender, tag, data));
                     }
                 }));
             }
@@ -237,14 +518,25 @@ public abstract class MoniqueComponent {
         }
     }
 
-    private void processIncomingMessage(ZMQ.Socket socket) {
+    private void processIncomingMessage(TaggedSender sender) {
         while (!Thread.currentThread().isInterrupted()) {
             CompletableFuture<Boolean> currentFeature = null;
             try {
                 Pair<MoniqueMessage, CompletableFuture<Boolean>> outPair = outgoing.take();
                 currentFeature = outPair.getValue();
-                socket.sendMore(createMessageTag(outPair.getKey()).getBytes(StandardCharsets.UTF_8));
-                boolean isSent = socket.send(objectToMessagePack(outPair.getKey()));
+                byte[] data = messageToMessagePack(outPair.getKey());
+                String tag = createMessageTag(outPair.getKey());
+                boolean isSent = sender.send(outPair.getKey().getPid(), tag, data);
+                if (!isSent) {
+                    log.warn("Message " + outPair.getKey().getId() + " is delayed: outgoing high-water mark reached");
+                }
+                // keep the message until socket accepts it, so outgoing queue fills up and callers see backpressure
+                while (!isSent && !Thread.currentThread().isInterrupted()) {
+                    isSent = sender.send(outPair.getKey().getPid(), tag, data);
+                }
+                if (isSent && sendCapture != null) {
+                    sendCapture.record(TrafficCapture.OUTGOING, tag.getBytes(StandardCharsets.UTF_8), data);
+                }
                 if (currentFeature != null) {
                     currentFeature.complete(isSent);
                 }
@@ -260,7 +552,97 @@ public abstract class MoniqueComponent {
         }
     }
 
-    private static class ErrorManager {
+    /**
+     * Send tag and message frames, returns false if socket did not accept message within send timeout
+     */
+    private static boolean sendTagged(ZMQ.Socket socket, String tag, byte[] data) {
+        return socket.sendMore(tag.getBytes(StandardCharsets.UTF_8)) && socket.send(data);
+    }
+
+    /**
+     * @param schedulers - scheduler endpoints from config
+     * @return communication addresses of schedulers
+     */
+    private static List<String> schedulerAddresses(List<Scheduler> schedulers) {
+        List<String> addresses = new ArrayList<>();
+        schedulers.forEach(scheduler -> addresses.add("tcp://" + scheduler.getHost() + ":" + scheduler.getComport()));
+        return addresses;
+    }
+
+    /**
+     * Creates router which sends messages to all scheduler-in endpoints
+     *
+     * @param sockets - creates socket for every endpoint
+     */
+    private static SchedulerRouter createRouter(Supplier<ZMQ.Socket> sockets) {
+        Monique monique = config.getDeploy().getMonique();
+        SchedulerRouter.Routing routing = "round-robin".equals(monique.getRouting()) ?
+                SchedulerRouter.Routing.ROUND_ROBIN : SchedulerRouter.Routing.HASH;
+        long ejectionTime = monique.getEjectionTime() != null ? monique.getEjectionTime() : DEFAULT_EJECTION_TIME;
+        return new SchedulerRouter(schedulerAddresses(monique.getIn()), sockets, routing, ejectionTime);
+    }
+
+    /**
+     * Creates ZMQ context with configured number of I/O threads
+     */
+    private static ZContext createContext() {
+        Transport transport = config.getDeploy().getTransport();
+        if (transport != null && transport.getIoThreads() != null) {
+            return new ZContext(transport.getIoThreads());
+        }
+        return new ZContext();
+    }
+
+    /**
+     * Creates ZMQ socket and applies transport options of config to it
+     *
+     * @param context - ZMQ context
+     * @param type    - ZMQ socket type
+     * @param channel - extracts channel specific options from transport config
+     */
+    private static ZMQ.Socket createSocket(ZContext context, int type, Function<Transport, Channel> channel) {
+        ZMQ.Socket socket = context.createSocket(type);
+        Transport transport = config.getDeploy().getTransport();
+        if (transport == null) {
+            return socket;
+        }
+        if (transport.getLinger() != null) {
+            socket.setLinger(transport.getLinger());
+        }
+        if (transport.getSendBuffer() != null) {
+            socket.setSendBufferSize(transport.getSendBuffer());
+        }
+        if (transport.getReceiveBuffer() != null) {
+            socket.setReceiveBufferSize(transport.getReceiveBuffer());
+        }
+        if (transport.getTcpKeepAlive() != null) {
+            socket.setTCPKeepAlive(transport.getTcpKeepAlive());
+        }
+        if (transport.getImmediate() != null) {
+            socket.setImmediate(transport.getImmediate());
+        }
+        if (transport.getSendTimeout() != null) {
+            socket.setSendTimeOut(transport.getSendTimeout());
+        }
+        if (transport.getReceiveTimeout() != null) {
+            socket.setReceiveTimeOut(transport.getReceiveTimeout());
+        }
+        Channel options = channel.apply(transport);
+        if (options != null) {
+            if (options.getSndhwm() != null) {
+                socket.setSndHWM(options.getSndhwm());
+            }
+            if (options.getRcvhwm() != null) {
+                socket.setRcvHWM(options.getRcvhwm());
+            }
+            if (options.getAffinity() != null) {
+                socket.setAffinity(options.getAffinity());
+            }
+        }
+        return socket;
+    }
+
+    static class ErrorManager {
 
         private static class ErrorManagerHolder {
             static final ErrorManager instance = new ErrorManager();
@@ -270,23 +652,48 @@ public abstract class MoniqueComponent {
             return ErrorManagerHolder.instance;
         }
 
+        private final AtomicLong received = new AtomicLong();
+
+        private final AtomicLong sent = new AtomicLong();
+
+        private final AtomicLong coalesced = new AtomicLong();
+
+        private final AtomicLong suppressed = new AtomicLong();
+
         /**
-         * Creates new ZMQ context and send error messages to MoniQue scheduler as soon as they appears
+         * Identical errors collected during current window, errors which were not sent
+         * due to rate limit or high-water mark stay here and are sent with the next window
+         */
+        private final Map<IdentifiedMoniqueError, IdentifiedMoniqueError> pending = new LinkedHashMap<>();
+
+        /**
+         * Creates new ZMQ context and send error messages to MoniQue scheduler
+         * Identical errors are coalesced within error window and sent with their count,
+         * sending is limited by token bucket with error rate per second
          */
         private void initErrorThread() {
+            Integer windowParam = config.getParam().getErrorWindow();
+            long window = windowParam != null ? windowParam : DEFAULT_ERROR_WINDOW;
+            Double rate = config.getParam().getErrorRate();
+            Integer burst = config.getParam().getErrorBurst();
+            TokenBucket bucket = new TokenBucket(rate != null ? rate : DEFAULT_ERROR_RATE,
+                    burst != null ? burst : (int) Math.ceil(rate != null ? rate : DEFAULT_ERROR_RATE));
             new Thread(() -> {
-                try (ZContext context = new ZContext()) {
-                    ZMQ.Socket errSender = context.createSocket(ZMQ.PUSH);
-                    errSender.connect("tcp://" + config.getDeploy().getMonique().getIn().getHost() +
-                            ":" + config.getDeploy().getMonique().getIn().getComport());
+                try (ZContext context = createContext()) {
+                    SchedulerRouter errSender = createRouter(() -> createSocket(context, ZMQ.PUSH, Transport::getError));
+                    long windowEnd = System.currentTimeMillis() + window;
                     while (!Thread.currentThread().isInterrupted()) {
                         try {
-                            IdentifiedMoniqueError error = errorQueue.take();
-                            String pid = error.getTaskId() != null ? error.getTaskId() : "";
-                            MoniqueMessage message = new MoniqueMessage(pid, UUID.randomUUID().toString(),
-                                    NEVER_EXPIRES, ERROR, JSON_TYPE, ERROR, objectToByteArray(error));
-                            errSender.sendMore(createMessageTag(message).getBytes(StandardCharsets.UTF_8));
-                            errSender.send(objectToMessagePack(message));
+                            IdentifiedMoniqueError error = window > 0 ?
+                                    errorQueue.poll(windowEnd - System.currentTimeMillis(), TimeUnit.MILLISECONDS) :
+                                    errorQueue.take();
+                            if (error != null) {
+                                collect(error);
+                            }
+                            if (System.currentTimeMillis() >= windowEnd) {
+                                flush(errSender, bucket);
+                                windowEnd = System.currentTimeMillis() + window;
+                            }
                         } catch (InterruptedException e) {
                             log.info("Error thread was interrupted");
                             break;
@@ -298,6 +705,44 @@ public abstract class MoniqueComponent {
             }).start();
             log.info("Error thread successfully started");
         }
+
+        void collect(IdentifiedMoniqueError error) {
+            received.incrementAndGet();
+            IdentifiedMoniqueError same = pending.get(error);
+            if (same != null) {
+                same.count++;
+                coalesced.incrementAndGet();
+            } else if (pending.size() < MAX_PENDING_ERRORS) {
+                pending.put(error, error);
+            } else {
+                suppressed.incrementAndGet();
+            }
+        }
+
+        void flush(SchedulerRouter errSender, TokenBucket bucket) throws IOException {
+            Iterator<IdentifiedMoniqueError> errors = pending.values().iterator();
+            while (errors.hasNext()) {
+                if (!bucket.tryAcquire()) {
+                    log.warn(pending.size() + " distinct errors are delayed by error rate limit, " + statistics());
+                    monitoringEvents.add("error rate limit reached, " + statistics());
+                    return;
+                }
+                IdentifiedMoniqueError error = errors.next();
+                String pid = error.getTaskId() != null ? error.getTaskId() : "";
+                MoniqueMessage message = new MoniqueMessage(pid, UUID.randomUUID().toString(),
+                        NEVER_EXPIRES, ERROR, MSGPACK_TYPE, ERROR, null);
+                if (!errSender.send(pid, createMessageTag(message), messageToMessagePack(message, error))) {
+                    log.warn(pending.size() + " distinct errors are delayed: error high-water mark reached");
+                    return;
+                }
+                errors.remove();
+                sent.incrementAndGet();
+            }
+        }
+
+        ErrorStatistics statistics() {
+            return new ErrorStatistics(received.get(), sent.get(), coalesced.get(), suppressed.get());
+        }
     }
 
     private static class TechnicalManager {
@@ -315,14 +760,16 @@ public abstract class MoniqueComponent {
          */
         private void initTechnicalThread() {
             new Thread(() -> {
-                try (ZContext context = new ZContext()) {
-                    ZMQ.Socket techSub = context.createSocket(ZMQ.SUB);
+                try (ZContext context = createContext()) {
+                    ZMQ.Socket techSub = createSocket(context, ZMQ.SUB, Transport::getTechnical);
                     techSub.subscribe("");
-                    techSub.connect("tcp://" + config.getDeploy().getMonique().getOut().getHost() +
-                            ":" + config.getDeploy().getMonique().getOut().getComport());
+                    schedulerAddresses(config.getDeploy().getMonique().getOut()).forEach(techSub::connect);
                     while (!Thread.currentThread().isInterrupted()) {
                         try {
                             ZMsg zMsg = ZMsg.recvMsg(techSub);
+                            if (zMsg == null) {
+                                continue;
+                            }
                             ZFrame tagFrame = zMsg.getFirst();
                             String tag = getStringFromBytes(tagFrame.getData());
                             if (CONFIG.equals(TagUtils.getTagPart(tag, TagUtils.TagPart.TYPE)) &&
@@ -353,22 +800,28 @@ public abstract class MoniqueComponent {
 
         /**
          * Creates new ZMQ context and send monitoring messages to MoniQue scheduler by cron
+         * Monitoring events, e.g. concurrency decisions, are sent immediately as monitoring message
          */
         private void initMonitoringThread() {
             new Thread(() -> {
-                try (ZContext context = new ZContext()) {
-                    ZMQ.Socket monitoringSender = context.createSocket(ZMQ.PUSH);
-                    monitoringSender.connect("tcp://" + config.getDeploy().getMonique().getIn().getHost() +
-                            ":" + config.getDeploy().getMonique().getIn().getComport());
+                try (ZContext context = createContext()) {
+                    SchedulerRouter monitoringSender = createRouter(() ->
+                            createSocket(context, ZMQ.PUSH, Transport::getMonitoring));
+                    String event = "";
                     while (!Thread.currentThread().isInterrupted()) {
                         try {
                             MoniqueMonitoring monitoring = new MoniqueMonitoring(config.getParam().getName(),
-                                    isCommunicationAlive, "");
+                                    isCommunicationAlive, event);
                             MoniqueMessage message = new MoniqueMessage("", UUID.randomUUID().toString(),
-                                    NEVER_EXPIRES, MONITORING, JSON_TYPE, DATA, Converter.objectToByteArray(monitoring));
-                            monitoringSender.sendMore(createMessageTag(message).getBytes(StandardCharsets.UTF_8));
-                            monitoringSender.send(objectToMessagePack(message));
-                            Thread.sleep(config.getParam().getFrequency());
+                                    NEVER_EXPIRES, MONITORING, MSGPACK_TYPE, DATA, null);
+                            if (!monitoringSender.send(message.getPid(), createMessageTag(message),
+                                    messageToMessagePack(message, monitoring))) {
+                                log.warn("Monitoring message was not sent: monitoring high-water mark reached");
+                            }
+                            event = monitoringEvents.poll(config.getParam().getFrequency(), TimeUnit.MILLISECONDS);
+                            if (event == null) {
+                                event = "";
+                            }
                         } catch (InterruptedException e) {
                             break;
                         } catch (Exception e) {
@@ -383,16 +836,59 @@ public abstract class MoniqueComponent {
         }
     }
 
+    @FunctionalInterface
+    private interface TaggedSender {
+        boolean send(String key, String tag, byte[] data);
+    }
+
+    /**
+     * Error statistics of error channel
+     * received - errors pushed to error queue, sent - error messages sent to MoniQue,
+     * coalesced - errors merged into identical ones, suppressed - errors dropped due to overflow
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class ErrorStatistics {
+        private long received;
+        private long sent;
+        private long coalesced;
+        private long suppressed;
+    }
+
+    /**
+     * Receive pipeline stage statistics
+     * size - messages waiting in stage queue, capacity - stage queue capacity, processed - messages taken by stage
+     */
     @Getter
+    @ToString
     @AllArgsConstructor
-    private static class IdentifiedMoniqueError {
+    public static class StageStatistics {
+        private String name;
+        private int size;
+        private int capacity;
+        private long processed;
+    }
+
+    @Getter
+    @EqualsAndHashCode(exclude = "count")
+    static class IdentifiedMoniqueError {
         private String taskId;
         private MoniqueError moniqueError;
 
-        IdentifiedMoniqueError(MoniqueError moniqueError) {
-            this.taskId = "";
+        /**
+         * Number of identical errors represented by this one
+         */
+        private int count = 1;
+
+        IdentifiedMoniqueError(String taskId, MoniqueError moniqueError) {
+            this.taskId = taskId;
             this.moniqueError = moniqueError;
         }
+
+        IdentifiedMoniqueError(MoniqueError moniqueError) {
+            this("", moniqueError);
+        }
     }
 
     @NoArgsConstructor
@@ -0,0 +1,139 @@
+package component;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import protocol.MoniqueTaggedMessage;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reactive Streams publisher of incoming messages
+ * <p>
+ * Messages are taken from incoming queue only when subscriber requested them, so with bounded incoming queue
+ * a slow subscriber stops receive pipeline and reading from ZMQ socket. Every subscription is served
+ * by its own thread, several subscribers share incoming messages. Subscriber owns delivered messages
+ * and has to release them
+ *
+ * @author Pavel Didkovskii
+ */
+class MoniquePublisher implements Publisher<MoniqueTaggedMessage> {
+
+    private static final Log log = LogFactory.getLog(MoniquePublisher.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Source source;
+
+    /**
+     * @param source - incoming messages, bounded source makes backpressure reach the socket
+     */
+    MoniquePublisher(Source source) {
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super MoniqueTaggedMessage> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        QueueSubscription subscription = new QueueSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.thread.start();
+    }
+
+    private class QueueSubscription implements Subscription {
+
+        private final Subscriber<? super MoniqueTaggedMessage> subscriber;
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final Thread thread = new Thread(this::deliver);
+
+        private volatile boolean cancelled;
+
+        private volatile Long invalidRequest;
+
+        QueueSubscription(Subscriber<? super MoniqueTaggedMessage> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = n;
+            } else {
+                requested.accumulateAndGet(n, (current, added) ->
+                        current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            LockSupport.unpark(thread);
+        }
+
+        private void deliver() {
+            while (!cancelled && !Thread.currentThread().isInterrupted()) {
+                if (invalidRequest != null) {
+                    cancelled = true;
+                    subscriber.onError(new IllegalArgumentException(
+                            "Requested " + invalidRequest + " messages, request has to be positive"));
+                    return;
+                }
+                if (requested.get() == 0) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS));
+                    continue;
+                }
+                MoniqueTaggedMessage message;
+                try {
+                    message = source.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (message == null) {
+                    continue;
+                }
+                if (cancelled) {
+                    message.release();
+                    break;
+                }
+                if (requested.get() != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                try {
+                    subscriber.onNext(message);
+                } catch (Exception e) {
+                    cancelled = true;
+                    releaseFailed(message);
+                    log.error("Subscriber failed in onNext, subscription is cancelled: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Message delivered to failed subscriber is released unless subscriber did it before throwing
+     */
+    private static void releaseFailed(MoniqueTaggedMessage message) {
+        try {
+            message.release();
+        } catch (IllegalStateException e) {
+            log.debug("Message was already released by subscriber: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Blocking source of incoming messages
+     */
+    @FunctionalInterface
+    interface Source {
+        MoniqueTaggedMessage poll(long timeout, TimeUnit unit) throws InterruptedException;
+    }
+}
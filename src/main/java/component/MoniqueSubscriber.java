@@ -0,0 +1,95 @@
+package component;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import protocol.MoniqueMessage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reactive Streams subscriber which sends messages to MoniQue
+ * <p>
+ * At most window messages are requested ahead, every next message is requested when one of them
+ * is handed over to PUSH socket, so demand follows outgoing queue and socket high-water mark
+ * onNext waits while outgoing queue is full, messages are never dropped. Subscription is cancelled
+ * if a message can't be sent, e.g. when sending thread is interrupted
+ *
+ * @author Pavel Didkovskii
+ */
+class MoniqueSubscriber implements Subscriber<MoniqueMessage> {
+
+    private static final Log log = LogFactory.getLog(MoniqueSubscriber.class);
+
+    private final Sender sender;
+
+    private final int window;
+
+    private final AtomicReference<Subscription> subscription = new AtomicReference<>();
+
+    /**
+     * @param sender - pushes message with its future to outgoing queue, waiting for free space
+     * @param window - maximal number of messages which are requested but not sent yet
+     */
+    MoniqueSubscriber(Sender sender, int window) {
+        this.sender = sender;
+        this.window = Math.max(1, window);
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        if (s == null) {
+            throw new NullPointerException("Subscription is null");
+        }
+        if (!subscription.compareAndSet(null, s)) {
+            s.cancel();
+            return;
+        }
+        s.request(window);
+    }
+
+    @Override
+    public void onNext(MoniqueMessage message) {
+        if (message == null) {
+            throw new NullPointerException("Message is null");
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        future.thenAccept(isSent -> {
+            if (isSent) {
+                subscription.get().request(1);
+            } else {
+                log.warn("Message " + message.getId() + " from publisher was not sent, subscription is cancelled");
+                subscription.get().cancel();
+            }
+        });
+        try {
+            sender.send(message, future);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.complete(false);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (t == null) {
+            throw new NullPointerException("Error is null");
+        }
+        log.error("Publisher of outgoing messages failed: " + t);
+    }
+
+    @Override
+    public void onComplete() {
+        log.info("Publisher of outgoing messages completed");
+    }
+
+    /**
+     * Blocking sink of outgoing messages
+     */
+    @FunctionalInterface
+    interface Sender {
+        void send(MoniqueMessage message, CompletableFuture<Boolean> future) throws InterruptedException;
+    }
+}
@@ -0,0 +1,269 @@
+package component;
+
+import component.Converter.TaggedMessageUnpacker;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMsg;
+import protocol.MoniqueTaggedMessage;
+import zmq.Msg;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+import static component.Converter.messageFromMessagePack;
+import static component.TagUtils.specMatches;
+
+/**
+ * Staged receive path of data messages
+ * <p>
+ * network read -> tag filter -> envelope decode -> dispatch
+ * <p>
+ * Socket thread only drains frames, filter and decode run in their own threads and stages are connected
+ * by bounded queues. With several decode threads messages may be dispatched out of order
+ * Decode stage blocks while dispatch queue is full, so bounded dispatch queue throttles reading from socket
+ *
+ * @author Pavel Didkovskii
+ */
+class ReceivePipeline {
+
+    private static final Log log = LogFactory.getLog(ReceivePipeline.class);
+
+    private final List<byte[]> specifications = new ArrayList<>();
+
+    private final Stage<Frames> filter;
+
+    private final Stage<Frames> decode;
+
+    private final LongAdder read = new LongAdder();
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private final BlockingQueue<MoniqueTaggedMessage> dispatch;
+
+    private final TrafficCapture capture;
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    /**
+     * @param specifications - accepted message specifications
+     * @param decodeThreads  - number of decode threads
+     * @param capacity       - capacity of filter and decode queues
+     * @param dispatch       - queue of decoded messages
+     * @param capture        - receive capture, may be null
+     */
+    ReceivePipeline(List<String> specifications, int decodeThreads, int capacity,
+                    BlockingQueue<MoniqueTaggedMessage> dispatch, TrafficCapture capture) {
+        specifications.forEach(spec -> this.specifications.add(spec.getBytes(StandardCharsets.UTF_8)));
+        this.filter = new Stage<>("filter", capacity);
+        this.decode = new Stage<>("decode", capacity);
+        this.dispatch = dispatch;
+        this.capture = capture;
+        threads.add(new Thread(this::filter));
+        for (int i = 0; i < Math.max(1, decodeThreads); i++) {
+            threads.add(new Thread(this::decode));
+        }
+    }
+
+    /**
+     * @return filter and decode threads, they have to be started along with socket thread
+     */
+    List<Thread> getThreads() {
+        return threads;
+    }
+
+    /**
+     * Network read stage, drains socket until thread is interrupted
+     *
+     * @param socket - data SUB socket
+     * @param pool   - pool of receive buffers, null to receive frames on heap
+     */
+    void read(ZMQ.Socket socket, BufferPool pool) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Frames frames = pool != null ? readPooled(socket, pool) : readHeap(socket);
+                if (frames != null) {
+                    read.increment();
+                    filter.queue.put(frames);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return occupancy of every stage
+     */
+    List<MoniqueComponent.StageStatistics> statistics() {
+        List<MoniqueComponent.StageStatistics> statistics = new ArrayList<>();
+        statistics.add(new MoniqueComponent.StageStatistics("read", 0, 0, read.sum()));
+        statistics.add(filter.statistics());
+        statistics.add(decode.statistics());
+        statistics.add(new MoniqueComponent.StageStatistics("dispatch", dispatch.size(),
+                dispatch.remainingCapacity() == Integer.MAX_VALUE ? Integer.MAX_VALUE :
+                        dispatch.size() + dispatch.remainingCapacity(), dispatched.sum()));
+        return statistics;
+    }
+
+    private Frames readHeap(ZMQ.Socket socket) {
+        ZMsg zMsg = ZMsg.recvMsg(socket);
+        if (zMsg == null) {
+            return null;
+        }
+        return new Frames(ByteBuffer.wrap(zMsg.getFirst().getData()), ByteBuffer.wrap(zMsg.getLast().getData()),
+                null, false, false);
+    }
+
+    /**
+     * Socket decodes frames straight into pooled buffers, see {@link BufferPool#allocate(int)}
+     * As in heap mode the first frame is tag and the last one is message
+     */
+    private Frames readPooled(ZMQ.Socket socket, BufferPool pool) {
+        Msg tag = socket.base().recv(0);
+        if (tag == null) {
+            return null;
+        }
+        Msg data = tag;
+        while (data.hasMore()) {
+            if (data != tag) {
+                recycle(pool, data);
+            }
+            data = socket.base().recv(0);
+            if (data == null) {
+                recycle(pool, tag);
+                log.error("An error occurred while receiving message from MoniQue: message is incomplete");
+                return null;
+            }
+        }
+        if (data == tag) {
+            recycle(pool, tag);
+            return null;
+        }
+        return new Frames(tag.buf(), data.buf(), pool, pool.isPooled(tag), pool.isPooled(data));
+    }
+
+    private static void recycle(BufferPool pool, Msg msg) {
+        if (pool.isPooled(msg)) {
+            pool.release(msg.buf());
+        }
+    }
+
+    private void filter() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Frames frames = filter.queue.take();
+                filter.processed.increment();
+                if (!specMatches(frames.tag, specifications)) {
+                    frames.recycleTag();
+                    frames.recycleData();
+                    continue;
+                }
+                if (capture != null) {
+                    capture.record(TrafficCapture.INCOMING, frames.tag, frames.data);
+                }
+                frames.decodedTag = StandardCharsets.UTF_8.decode(frames.tag.duplicate()).toString();
+                frames.recycleTag();
+                decode.queue.put(frames);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    private void decode() {
+        TaggedMessageUnpacker unpacker = new TaggedMessageUnpacker();
+        while (!Thread.currentThread().isInterrupted()) {
+            Frames frames;
+            try {
+                frames = decode.queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            decode.processed.increment();
+            MoniqueTaggedMessage message;
+            try {
+                if (!frames.dataPooled) {
+                    message = new MoniqueTaggedMessage(frames.decodedTag, messageFromMessagePack(frames.data.array()));
+                } else {
+                    message = unpacker.unpack(frames.decodedTag, frames.data, frames::recycleData);
+                }
+            } catch (Exception e) {
+                frames.recycleData();
+                log.error("An error occurred while decoding message from MoniQue: " + e);
+                continue;
+            }
+            try {
+                dispatch.put(message);
+                dispatched.increment();
+            } catch (InterruptedException e) {
+                message.release();
+                break;
+            }
+        }
+    }
+
+    private static class Stage<T> {
+
+        private final String name;
+
+        private final BlockingQueue<T> queue;
+
+        private final LongAdder processed = new LongAdder();
+
+        Stage(String name, int capacity) {
+            this.name = name;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        MoniqueComponent.StageStatistics statistics() {
+            return new MoniqueComponent.StageStatistics(name, queue.size(),
+                    queue.size() + queue.remainingCapacity(), processed.sum());
+        }
+    }
+
+    private static class Frames {
+
+        private final ByteBuffer tag;
+
+        private final ByteBuffer data;
+
+        private final BufferPool pool;
+
+        private final boolean tagPooled;
+
+        private final boolean dataPooled;
+
+        private String decodedTag;
+
+        /**
+         * @param pool       - pool of frame buffers, null for heap frames
+         * @param tagPooled  - tag frame is kept in pooled buffer
+         * @param dataPooled - message frame is kept in pooled buffer
+         */
+        Frames(ByteBuffer tag, ByteBuffer data, BufferPool pool, boolean tagPooled, boolean dataPooled) {
+            this.tag = tag;
+            this.data = data;
+            this.pool = pool;
+            this.tagPooled = tagPooled;
+            this.dataPooled = dataPooled;
+        }
+
+        void recycleTag() {
+            if (tagPooled) {
+                pool.release(tag);
+            }
+        }
+
+        void recycleData() {
+            if (dataPooled) {
+                pool.release(data);
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package component;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zeromq.ZMQ;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Routes outgoing messages between several MoniQue scheduler endpoints
+ * Each endpoint has its own PUSH socket, endpoint is selected by consistent hashing of message key
+ * or in round-robin order. Endpoint which does not accept several messages in a row within send timeout
+ * is ejected for configured time and messages are sent to the next available endpoint.
+ * If all endpoints are ejected, the one whose ejection ends first is still tried
+ * With several endpoints messages are queued only to connected ones, so send to unavailable endpoint fails
+ * within send timeout and nothing is left in its queue
+ *
+ * @author Pavel Didkovskii
+ */
+class SchedulerRouter {
+
+    private static final Log log = LogFactory.getLog(SchedulerRouter.class);
+
+    private static final int VIRTUAL_NODES = 100;
+
+    private static final int EJECTION_FAILURES = 3;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+
+    private final TreeMap<Integer, Endpoint> ring = new TreeMap<>();
+
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private final Routing routing;
+
+    private final long ejectionMillis;
+
+    /**
+     * @param addresses      - scheduler endpoint addresses
+     * @param sockets        - creates new socket for endpoint
+     * @param routing        - endpoint selection strategy
+     * @param ejectionMillis - time during which failed endpoint is not used
+     */
+    SchedulerRouter(List<String> addresses, Supplier<ZMQ.Socket> sockets, Routing routing, long ejectionMillis) {
+        this.routing = routing;
+        this.ejectionMillis = ejectionMillis;
+        for (String address : addresses) {
+            ZMQ.Socket socket = sockets.get();
+            if (addresses.size() > 1) {
+                // messages must not be queued to endpoint which is not connected, otherwise they are lost
+                // instead of failing over. jeromq 0.4.3 inverts ZMQ_IMMEDIATE: false is what disables such queueing
+                socket.setImmediate(false);
+            }
+            socket.connect(address);
+            Endpoint endpoint = new Endpoint(address, socket);
+            endpoints.add(endpoint);
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(address + "#" + i), endpoint);
+            }
+        }
+    }
+
+    /**
+     * Send tagged message to endpoint selected by key
+     *
+     * @param key  - routing key, e.g. message pid
+     * @param tag  - message tag
+     * @param data - packed message
+     * @return false if none of endpoints accepted message
+     */
+    boolean send(String key, String tag, byte[] data) {
+        List<Endpoint> candidates = candidates(key);
+        long now = System.currentTimeMillis();
+        Endpoint soonest = null;
+        for (Endpoint endpoint : candidates) {
+            if (endpoint.ejectedUntil > now) {
+                if (soonest == null || endpoint.ejectedUntil < soonest.ejectedUntil) {
+                    soonest = endpoint;
+                }
+                continue;
+            }
+            if (trySend(endpoint, tag, data, now)) {
+                return true;
+            }
+        }
+        return soonest != null && trySend(soonest, tag, data, now);
+    }
+
+    /**
+     * Endpoint is ejected only after several consecutive failed sends, successful send reinstates it
+     */
+    private boolean trySend(Endpoint endpoint, String tag, byte[] data, long now) {
+        if (endpoint.send(tag, data)) {
+            endpoint.failures = 0;
+            endpoint.ejectedUntil = 0;
+            return true;
+        }
+        if (++endpoint.failures >= EJECTION_FAILURES) {
+            endpoint.ejectedUntil = now + ejectionMillis;
+            log.warn("Scheduler endpoint " + endpoint.address + " ejected for " + ejectionMillis + " ms after " +
+                    endpoint.failures + " failed sends");
+        }
+        return false;
+    }
+
+    /**
+     * Endpoints in order of preference for given key, each endpoint appears once
+     */
+    private List<Endpoint> candidates(String key) {
+        List<Endpoint> result = new ArrayList<>(endpoints.size());
+        if (routing == Routing.ROUND_ROBIN) {
+            int start = Math.floorMod(counter.getAndIncrement(), endpoints.size());
+            for (int i = 0; i < endpoints.size(); i++) {
+                result.add(endpoints.get((start + i) % endpoints.size()));
+            }
+            return result;
+        }
+        int hash = hash(key != null ? key : "");
+        collect(ring.tailMap(hash).values(), result);
+        collect(ring.headMap(hash).values(), result);
+        return result;
+    }
+
+    private void collect(Collection<Endpoint> ringPart, List<Endpoint> result) {
+        for (Endpoint endpoint : ringPart) {
+            if (result.size() == endpoints.size()) {
+                return;
+            }
+            if (!result.contains(endpoint)) {
+                result.add(endpoint);
+            }
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    enum Routing {
+        HASH, ROUND_ROBIN
+    }
+
+    private static class Endpoint {
+
+        private final String address;
+
+        private final ZMQ.Socket socket;
+
+        private long ejectedUntil;
+
+        private int failures;
+
+        Endpoint(String address, ZMQ.Socket socket) {
+            this.address = address;
+            this.socket = socket;
+        }
+
+        boolean send(String tag, byte[] data) {
+            return socket.sendMore(tag.getBytes(StandardCharsets.UTF_8)) && socket.send(data);
+        }
+    }
+}
@@ -3,6 +3,9 @@ package component;
 import exception.InvalidValueException;
 import protocol.MoniqueMessage;
 
+import java.nio.ByteBuffer;
+import java.util.List;
+
 import static component.Constant.DELIMETER;
 
 
@@ -29,6 +32,49 @@ public class TagUtils {
                 moniqueMessage.getCreator());
     }
 
+    /**
+     * Check specification of UTF-8 encoded tag without decoding it
+     * Tag has to consist of five parts, the last one not empty, as required by getTagPart
+     *
+     * @param tag            - MoniQue message tag between buffer position and limit
+     * @param specifications - UTF-8 encoded specifications
+     * @return true if tag specification is one of specifications
+     */
+    static boolean specMatches(ByteBuffer tag, List<byte[]> specifications) {
+        byte delimeter = (byte) DELIMETER.charAt(0);
+        int start = -1;
+        int end = -1;
+        int delimeters = 0;
+        for (int i = tag.position(); i < tag.limit(); i++) {
+            if (tag.get(i) == delimeter) {
+                delimeters++;
+                if (delimeters == 1) {
+                    start = i + 1;
+                } else if (delimeters == 2) {
+                    end = i;
+                }
+            }
+        }
+        if (delimeters != 4 || tag.get(tag.limit() - 1) == delimeter) {
+            return false;
+        }
+        for (byte[] spec : specifications) {
+            if (spec.length == end - start && matches(tag, start, spec)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean matches(ByteBuffer tag, int offset, byte[] spec) {
+        for (int i = 0; i < spec.length; i++) {
+            if (tag.get(offset + i) != spec[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Extract tag part from MoniQue message tag
      *
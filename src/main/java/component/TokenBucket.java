@@ -0,0 +1,41 @@
+package component;
+
+/**
+ * Token bucket rate limiter, not thread safe
+ *
+ * @author Pavel Didkovskii
+ */
+class TokenBucket {
+
+    private final double tokensPerNano;
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long refilledAt = System.nanoTime();
+
+    /**
+     * @param ratePerSecond - tokens added per second
+     * @param burst         - maximal number of tokens
+     */
+    TokenBucket(double ratePerSecond, int burst) {
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+    }
+
+    /**
+     * @return true if token was taken
+     */
+    boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+}
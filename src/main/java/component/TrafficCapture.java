@@ -0,0 +1,201 @@
+package component;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes raw tag and message frames of received and sent messages to memory-mapped segment files
+ * <p>
+ * Segment file is named {@code <path>.<index>}, record layout is
+ * {@code [int length][long nanoTime][byte direction][int tag length][tag][message]},
+ * where length is the size of everything after it. Zero length marks the end of segment
+ * Segments of earlier capture to the same path are deleted when the first segment is opened.
+ * At most maxSegments segments are kept, the oldest one is deleted when a new one is opened,
+ * so capture holds the latest traffic and never takes more than maxSegments * segmentSize of disk
+ *
+ * @author Pavel Didkovskii
+ */
+class TrafficCapture implements Closeable {
+
+    static final byte INCOMING = 0;
+
+    static final byte OUTGOING = 1;
+
+    private static final Log log = LogFactory.getLog(TrafficCapture.class);
+
+    private static final int RECORD_HEADER = Long.BYTES + Byte.BYTES + Integer.BYTES;
+
+    private final String path;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private int segmentIndex = -1;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * @param path        - path prefix of segment files
+     * @param segmentSize - size of segment file in bytes
+     * @param maxSegments - maximal number of segment files on disk
+     */
+    TrafficCapture(String path, int segmentSize, int maxSegments) {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    /**
+     * Append message to capture, message which does not fit into empty segment is dropped
+     *
+     * @param direction - INCOMING or OUTGOING
+     * @param tag       - raw tag frame
+     * @param message   - raw message frame, its position is not changed
+     */
+    synchronized void record(byte direction, ByteBuffer tag, ByteBuffer message) {
+        long now = System.nanoTime();
+        int length = RECORD_HEADER + tag.remaining() + message.remaining();
+        if (Integer.BYTES + length > segmentSize - Integer.BYTES) {
+            log.warn("Message of " + length + " bytes does not fit into capture segment");
+            return;
+        }
+        try {
+            if (segment == null || segment.remaining() < Integer.BYTES + length + Integer.BYTES) {
+                nextSegment();
+            }
+            segment.putInt(length);
+            segment.putLong(now);
+            segment.put(direction);
+            segment.putInt(tag.remaining());
+            segment.put(tag.duplicate());
+            segment.put(message.duplicate());
+        } catch (IOException e) {
+            log.error("An error occurred while writing traffic capture: " + e.getMessage());
+        }
+    }
+
+    synchronized void record(byte direction, byte[] tag, byte[] message) {
+        record(direction, ByteBuffer.wrap(tag), ByteBuffer.wrap(message));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    private void nextSegment() throws IOException {
+        close();
+        segmentIndex++;
+        if (segmentIndex == 0) {
+            deleteSegments(path);
+        } else if (segmentIndex >= maxSegments) {
+            Files.deleteIfExists(segmentPath(path, segmentIndex - maxSegments));
+        }
+        try (FileChannel channel = FileChannel.open(segmentPath(path, segmentIndex), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        log.info("Traffic capture segment " + segmentPath(path, segmentIndex) + " opened");
+    }
+
+    /**
+     * Delete segments left by earlier capture to the same path, otherwise reader would append them to new capture
+     */
+    static void deleteSegments(String path) throws IOException {
+        for (int index : segments(path)) {
+            Files.deleteIfExists(segmentPath(path, index));
+            log.info("Stale traffic capture segment " + segmentPath(path, index) + " deleted");
+        }
+    }
+
+    /**
+     * @return indexes of existing segments in ascending order
+     */
+    static List<Integer> segments(String path) throws IOException {
+        Path prefix = Paths.get(path).toAbsolutePath();
+        String name = prefix.getFileName() + ".";
+        List<Integer> indexes = new ArrayList<>();
+        if (!Files.isDirectory(prefix.getParent())) {
+            return indexes;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(prefix.getParent(), name + "*")) {
+            for (Path file : files) {
+                String index = file.getFileName().toString().substring(name.length());
+                if (!index.isEmpty() && index.chars().allMatch(Character::isDigit)) {
+                    indexes.add(Integer.parseInt(index));
+                }
+            }
+        }
+        Collections.sort(indexes);
+        return indexes;
+    }
+
+    static Path segmentPath(String path, int index) {
+        return Paths.get(path + "." + index);
+    }
+
+    /**
+     * Read all records of capture in order
+     *
+     * @param path     - capture path as configured for writing
+     * @param consumer - receives every record
+     * @throws IOException
+     */
+    static void read(String path, Consumer<Record> consumer) throws IOException {
+        for (int index : segments(path)) {
+            try (FileChannel channel = FileChannel.open(segmentPath(path, index), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (segment.remaining() >= Integer.BYTES) {
+                    int length = segment.getInt();
+                    if (length <= 0) {
+                        break;
+                    }
+                    long nanoTime = segment.getLong();
+                    byte direction = segment.get();
+                    byte[] tag = new byte[segment.getInt()];
+                    segment.get(tag);
+                    byte[] message = new byte[length - RECORD_HEADER - tag.length];
+                    segment.get(message);
+                    consumer.accept(new Record(nanoTime, direction, tag, message));
+                }
+            }
+        }
+    }
+
+    static class Record {
+
+        final long nanoTime;
+
+        final byte direction;
+
+        final byte[] tag;
+
+        final byte[] message;
+
+        Record(long nanoTime, byte direction, byte[] tag, byte[] message) {
+            this.nanoTime = nanoTime;
+            this.direction = direction;
+            this.tag = tag;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package component;
+
+import exception.InvalidValueException;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMsg;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static component.Constant.DATA;
+import static component.Constant.MONITORING;
+import static component.Converter.getStringFromBytes;
+import static component.TagUtils.TagPart;
+import static component.TagUtils.getTagPart;
+
+/**
+ * Replays captured incoming traffic into a running component acting as MoniQue scheduler
+ * <p>
+ * Incoming records of capture are published on scheduler-out address with original pacing divided by speed
+ * or as fast as possible. Messages sent by the component to scheduler-in address are matched with replayed
+ * ones by pid, which gives processing latency. Replay waits for responses until every replayed message got one
+ * or for at most 5 seconds after the last record
+ * <p>
+ * Usage: {@code TrafficReplay <capture path> <scheduler-out address> <scheduler-in address> <speed|max>}
+ *
+ * @author Pavel Didkovskii
+ */
+public class TrafficReplay {
+
+    private static final Log log = LogFactory.getLog(TrafficReplay.class);
+
+    private static final long DRAIN_MILLIS = 5000;
+
+    private static final long SUBSCRIPTION_MILLIS = 1000;
+
+    private static final int POLL_MILLIS = 100;
+
+    private final String path;
+
+    private final String outAddress;
+
+    private final String inAddress;
+
+    private final double speed;
+
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+
+    private long[] latencies = new long[1024];
+
+    private int responses;
+
+    /**
+     * Deadline of waiting for responses, set when all records are replayed
+     */
+    private volatile long drainDeadline;
+
+    private volatile boolean replayed;
+
+    /**
+     * @param path       - capture path
+     * @param outAddress - address component subscribes to, e.g. tcp://*:9001
+     * @param inAddress  - address component sends to, e.g. tcp://*:9000
+     * @param speed      - replay speed factor, zero or negative for maximum speed
+     */
+    public TrafficReplay(String path, String outAddress, String inAddress, double speed) {
+        this.path = path;
+        this.outAddress = outAddress;
+        this.inAddress = inAddress;
+        this.speed = speed;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            System.err.println("Usage: TrafficReplay <capture path> <scheduler-out address> " +
+                    "<scheduler-in address> <speed|max>");
+            System.exit(1);
+        }
+        double speed = "max".equals(args[3]) ? 0 : Double.parseDouble(args[3]);
+        System.out.println(new TrafficReplay(args[0], args[1], args[2], speed).replay());
+    }
+
+    /**
+     * Replay capture and wait for component responses
+     *
+     * @return replay statistics
+     * @throws IOException
+     * @throws InterruptedException
+     */
+    public Report replay() throws IOException, InterruptedException {
+        try (ZContext context = new ZContext()) {
+            ZMQ.Socket publisher = context.createSocket(ZMQ.PUB);
+            // PUB drops messages at high-water mark, unlimited one keeps every replayed record
+            publisher.setSndHWM(0);
+            publisher.bind(outAddress);
+            ZMQ.Socket collector = context.createSocket(ZMQ.PULL);
+            collector.setReceiveTimeOut(POLL_MILLIS);
+            collector.bind(inAddress);
+            Thread.sleep(SUBSCRIPTION_MILLIS);
+
+            Thread collectorThread = new Thread(() -> collect(collector));
+            collectorThread.start();
+
+            long[] counters = {0, 0};
+            long[] origin = {Long.MIN_VALUE};
+            long startedAt = System.nanoTime();
+            TrafficCapture.read(path, record -> {
+                if (record.direction != TrafficCapture.INCOMING) {
+                    return;
+                }
+                if (origin[0] == Long.MIN_VALUE) {
+                    origin[0] = record.nanoTime;
+                }
+                if (speed > 0) {
+                    long due = startedAt + (long) ((record.nanoTime - origin[0]) / speed);
+                    for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                try {
+                    sentAt.put(getTagPart(getStringFromBytes(record.tag), TagPart.ID), System.nanoTime());
+                } catch (InvalidValueException e) {
+                    log.warn("Captured message has invalid tag: " + e.getMessage());
+                }
+                if (publisher.sendMore(record.tag) && publisher.send(record.message)) {
+                    counters[0]++;
+                    counters[1] += record.message.length;
+                } else {
+                    log.warn("Captured message was not replayed");
+                }
+            });
+            long elapsed = System.nanoTime() - startedAt;
+            drainDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_MILLIS);
+            replayed = true;
+            collectorThread.join();
+            return report(counters[0], counters[1], elapsed);
+        }
+    }
+
+    /**
+     * Collect responses until every replayed message got one or drain deadline passed
+     * Only data messages count as responses, monitoring, error and other messages are ignored
+     */
+    private void collect(ZMQ.Socket collector) {
+        while (!replayed || !sentAt.isEmpty() && System.nanoTime() - drainDeadline < 0) {
+            ZMsg zMsg = ZMsg.recvMsg(collector);
+            if (zMsg == null) {
+                continue;
+            }
+            try {
+                String tag = getStringFromBytes(zMsg.getFirst().getData());
+                if (!DATA.equals(getTagPart(tag, TagPart.TYPE)) || MONITORING.equals(getTagPart(tag, TagPart.SPEC))) {
+                    continue;
+                }
+                Long sent = sentAt.remove(getTagPart(tag, TagPart.PID));
+                if (sent != null) {
+                    synchronized (this) {
+                        if (responses == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, responses * 2);
+                        }
+                        latencies[responses++] = System.nanoTime() - sent;
+                    }
+                }
+            } catch (InvalidValueException e) {
+                log.warn("Component sent message with invalid tag: " + e.getMessage());
+            }
+        }
+    }
+
+    private synchronized Report report(long messages, long bytes, long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(latencies, responses);
+        Arrays.sort(sorted);
+        return new Report(messages, bytes, elapsedNanos, responses,
+                percentile(sorted, 0.5), percentile(sorted, 0.99), sorted.length > 0 ? sorted[sorted.length - 1] : 0);
+    }
+
+    private static long percentile(long[] sorted, double rank) {
+        return sorted.length > 0 ? sorted[(int) Math.ceil(rank * sorted.length) - 1] : 0;
+    }
+
+    /**
+     * Replay statistics, latencies are in nanoseconds
+     */
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Report {
+
+        private final long messages;
+
+        private final long bytes;
+
+        private final long elapsedNanos;
+
+        private final int responses;
+
+        private final long p50;
+
+        private final long p99;
+
+        private final long max;
+
+        public double getThroughput() {
+            return elapsedNanos > 0 ? messages * 1e9 / elapsedNanos : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("replayed %d messages (%d bytes) in %.3f s, %.1f msg/s; " +
+                            "%d responses, latency p50=%.3f ms p99=%.3f ms max=%.3f ms",
+                    messages, bytes, elapsedNanos / 1e9, getThroughput(), responses,
+                    p50 / 1e6, p99 / 1e6, max / 1e6);
+        }
+    }
+}
@@ -58,6 +58,19 @@ public class MoniqueMessage {
         this.id = assignMessageId();
     }
 
+    public MoniqueMessage(String id, String pid, String creator, Integer createdAt, Integer expiresAt, String spec,
+                          String encoding, String type, byte[] data) {
+        this.id = id;
+        this.pid = pid;
+        this.creator = creator;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+        this.spec = spec;
+        this.encoding = encoding;
+        this.type = type;
+        this.data = data;
+    }
+
     private String assignMessageId() {
         StringBuilder idBuilder = new StringBuilder();
         Random rand = new Random();
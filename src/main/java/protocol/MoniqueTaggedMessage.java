@@ -1,19 +1,75 @@
 package protocol;
 
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Monique message with tag
+ * Messages received in pooled mode keep their data in a pooled receive buffer:
+ * data is available through payload until the message is released
  *
  * @author Pavel Didkovskii
  * */
 @Getter
-@AllArgsConstructor
 public class MoniqueTaggedMessage {
 
     private String tag;
 
     private MoniqueMessage moniqueMessage;
 
+    /**
+     * Read-only view of message data in pooled receive buffer, null for messages with data on heap
+     */
+    private ByteBuffer payload;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    @Getter(AccessLevel.NONE)
+    private Runnable recycler;
+
+    public MoniqueTaggedMessage(String tag, MoniqueMessage moniqueMessage) {
+        this.tag = tag;
+        this.moniqueMessage = moniqueMessage;
+    }
+
+    public MoniqueTaggedMessage(String tag, MoniqueMessage moniqueMessage, ByteBuffer payload, Runnable recycler) {
+        this.tag = tag;
+        this.moniqueMessage = moniqueMessage;
+        this.payload = payload;
+        this.recycler = recycler;
+    }
+
+    /**
+     * Add holder of the message, every retain has to be followed by release
+     *
+     * @return this message
+     */
+    public MoniqueTaggedMessage retain() {
+        references.incrementAndGet();
+        return this;
+    }
+
+    /**
+     * Release the message, the last release returns its receive buffer to the pool
+     * Payload must not be used after that. Releasing a message with data on heap does nothing
+     *
+     * @throws IllegalStateException if pooled message is released more times than it was retained
+     */
+    public void release() {
+        if (recycler == null) {
+            return;
+        }
+        int left = references.decrementAndGet();
+        if (left == 0) {
+            payload = null;
+            recycler.run();
+        } else if (left < 0) {
+            throw new IllegalStateException("Message " + tag + " is already released");
+        }
+    }
+
 }
@@ -0,0 +1,111 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyControllerTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final List<String> decisions = new ArrayList<>();
+
+    @Test
+    public void testLimitIsIncreasedWhileBacklogIsHandled() {
+        ConcurrencyController<Object> controller = controller(1, 4);
+        depth.set(100);
+        for (int expected = 2; expected <= 4; expected++) {
+            controller.record(MILLIS);
+            Assert.assertEquals(expected, controller.decide());
+        }
+        Assert.assertEquals(3, decisions.size());
+    }
+
+    @Test
+    public void testLimitIsNotIncreasedOverMax() {
+        ConcurrencyController<Object> controller = controller(1, 2);
+        depth.set(100);
+        for (int i = 0; i < 5; i++) {
+            controller.record(MILLIS);
+            controller.decide();
+        }
+        Assert.assertEquals(2, controller.getLimit());
+    }
+
+    @Test
+    public void testLimitIsNotIncreasedWhenNothingCompleted() {
+        ConcurrencyController<Object> controller = controller(1, 4);
+        depth.set(100);
+        Assert.assertEquals(1, controller.decide());
+        Assert.assertTrue(decisions.isEmpty());
+    }
+
+    @Test
+    public void testLimitIsNotIncreasedWithoutBacklog() {
+        ConcurrencyController<Object> controller = controller(2, 4);
+        depth.set(2);
+        controller.record(MILLIS);
+        Assert.assertEquals(2, controller.decide());
+    }
+
+    @Test
+    public void testLimitBacksOffWhenLatencyGrows() {
+        ConcurrencyController<Object> controller = controller(1, 16);
+        depth.set(100);
+        for (int i = 0; i < 7; i++) {
+            controller.record(MILLIS);
+            controller.decide();
+        }
+        Assert.assertEquals(8, controller.getLimit());
+
+        controller.record(10 * MILLIS);
+        Assert.assertEquals(6, controller.decide());
+    }
+
+    @Test
+    public void testBackoffIsNotBelowMin() {
+        ConcurrencyController<Object> controller = controller(2, 4);
+        depth.set(100);
+        controller.record(MILLIS);
+        controller.decide();
+
+        controller.record(10 * MILLIS);
+        Assert.assertEquals(2, controller.decide());
+    }
+
+    @Test
+    public void testLimitIsDecreasedOnEmptyQueue() {
+        ConcurrencyController<Object> controller = controller(1, 4);
+        depth.set(100);
+        for (int i = 0; i < 3; i++) {
+            controller.record(MILLIS);
+            controller.decide();
+        }
+        depth.set(0);
+        Assert.assertEquals(3, controller.decide());
+        Assert.assertEquals(2, controller.decide());
+        Assert.assertEquals(1, controller.decide());
+        Assert.assertEquals(1, controller.decide());
+    }
+
+    @Test
+    public void testMinAndMaxAreClamped() {
+        ConcurrencyController<Object> controller = new ConcurrencyController<>((timeout, unit) -> null,
+                item -> {
+                }, depth::get, 0, -1, decisions::add);
+        Assert.assertEquals(1, controller.getLimit());
+        depth.set(100);
+        controller.record(MILLIS);
+        Assert.assertEquals(1, controller.decide());
+    }
+
+    private ConcurrencyController<Object> controller(int min, int max) {
+        return new ConcurrencyController<>((timeout, unit) -> null, item -> {
+        }, depth::get, min, max, decisions::add);
+    }
+}
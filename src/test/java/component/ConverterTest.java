@@ -0,0 +1,175 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+import protocol.MoniqueMessage;
+import protocol.MoniqueTaggedMessage;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static component.Constant.JSON_TYPE;
+import static component.Constant.MSGPACK_TYPE;
+
+public class ConverterTest {
+
+    @Test
+    public void testJsonMessageRoundTrip() throws IOException {
+        MoniqueMessage message = message(JSON_TYPE, "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8));
+        Assert.assertEquals(message, Converter.messageFromMessagePack(Converter.messageToMessagePack(message)));
+    }
+
+    @Test
+    public void testMessagePackMessageRoundTrip() throws IOException {
+        byte[] data = Converter.payloadToMessagePack(Collections.singletonMap("key", "value"));
+        MoniqueMessage message = message(MSGPACK_TYPE, data);
+
+        MoniqueMessage decoded = Converter.messageFromMessagePack(Converter.messageToMessagePack(message));
+
+        Assert.assertEquals(message, decoded);
+        Assert.assertEquals("value", Converter.payloadFromMessagePack(decoded.getData(), Map.class).get("key"));
+    }
+
+    @Test
+    public void testInlinePayloadRoundTrip() throws IOException {
+        MoniqueMessage message = message(MSGPACK_TYPE, null);
+        byte[] packed = Converter.messageToMessagePack(message, Collections.singletonMap("key", "value"));
+
+        MoniqueMessage decoded = Converter.messageFromMessagePack(packed);
+
+        Assert.assertEquals(message.getId(), decoded.getId());
+        Assert.assertEquals("value", Converter.payloadFromMessagePack(decoded.getData(), Map.class).get("key"));
+    }
+
+    @Test
+    public void testNullFieldsRoundTrip() throws IOException {
+        MoniqueMessage message = new MoniqueMessage(null, null, null, null, null, null, null, null, null);
+        Assert.assertEquals(message, Converter.messageFromMessagePack(Converter.messageToMessagePack(message)));
+    }
+
+    @Test
+    public void testJacksonCodecReadsMessage() throws IOException {
+        for (MoniqueMessage message : Arrays.asList(
+                message(JSON_TYPE, "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8)),
+                message(JSON_TYPE, null),
+                new MoniqueMessage(null, null, null, null, null, null, null, null, null))) {
+            byte[] packed = Converter.messageToMessagePack(message);
+            Assert.assertEquals(message, Converter.objectFromMessagePack(packed, MoniqueMessage.class));
+        }
+    }
+
+    @Test
+    public void testMessageFromJacksonCodec() throws IOException {
+        for (MoniqueMessage message : Arrays.asList(
+                message(JSON_TYPE, "{\"key\":\"value\"}".getBytes(StandardCharsets.UTF_8)),
+                message(MSGPACK_TYPE, Converter.payloadToMessagePack(Collections.singletonMap("key", "value"))),
+                message(JSON_TYPE, null),
+                new MoniqueMessage(null, null, null, null, null, null, null, null, null))) {
+            byte[] packed = Converter.objectToMessagePack(message);
+            Assert.assertEquals(message, Converter.messageFromMessagePack(packed));
+        }
+    }
+
+    @Test
+    public void testJsonDataSentAsString() throws IOException {
+        String json = "{\"key\":\"value\"}";
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("id", "id");
+        envelope.put("encoding", JSON_TYPE);
+        envelope.put("data", json);
+        byte[] packed = Converter.objectToMessagePack(envelope);
+
+        MoniqueMessage expected = Converter.objectFromMessagePack(packed, MoniqueMessage.class);
+        MoniqueMessage decoded = Converter.messageFromMessagePack(packed);
+
+        Assert.assertArrayEquals(json.getBytes(StandardCharsets.UTF_8), decoded.getData());
+        Assert.assertEquals(expected, decoded);
+    }
+
+    @Test
+    public void testMessagePackStringDataBeforeEncoding() throws IOException {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("data", "value");
+        envelope.put("encoding", MSGPACK_TYPE);
+        byte[] packed = Converter.objectToMessagePack(envelope);
+
+        MoniqueMessage decoded = Converter.messageFromMessagePack(packed);
+
+        Assert.assertEquals("value", Converter.payloadFromMessagePack(decoded.getData(), String.class));
+    }
+
+    @Test
+    public void testTaggedMessageFromDirectBuffer() throws IOException {
+        MoniqueMessage message = message(MSGPACK_TYPE, null);
+        byte[] packed = Converter.messageToMessagePack(message, Collections.singletonMap("key", "value"));
+        ByteBuffer buffer = ByteBuffer.allocateDirect(packed.length + 8);
+        buffer.position(8);
+        buffer.put(packed);
+        buffer.position(8);
+
+        AtomicInteger recycled = new AtomicInteger();
+        MoniqueTaggedMessage tagged = Converter.taggedMessageFromMessagePack("tag", buffer, recycled::incrementAndGet);
+
+        Assert.assertEquals(message.getId(), tagged.getMoniqueMessage().getId());
+        Assert.assertEquals("value", Converter.payloadFromMessagePack(tagged.getPayload(), Map.class).get("key"));
+        tagged.release();
+        Assert.assertEquals(1, recycled.get());
+    }
+
+    @Test
+    public void testReusableUnpackerDoesNotCopyPayload() throws IOException {
+        MoniqueMessage message = message(MSGPACK_TYPE, null);
+        char[] value = new char[64 * 1024];
+        Arrays.fill(value, 'x');
+        byte[] packed = Converter.messageToMessagePack(message, Collections.singletonMap("key", new String(value)));
+        ByteBuffer buffer = ByteBuffer.allocate(packed.length);
+        buffer.put(packed).flip();
+        Converter.TaggedMessageUnpacker unpacker = new Converter.TaggedMessageUnpacker();
+        Runnable recycler = () -> {
+        };
+        for (int i = 0; i < 1000; i++) {
+            unpacker.unpack("tag", buffer, recycler);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        MoniqueTaggedMessage tagged = null;
+        for (int i = 0; i < 1000; i++) {
+            tagged = unpacker.unpack("tag", buffer, recycler);
+        }
+        long perMessage = (threads.getThreadAllocatedBytes(threadId) - before) / 1000;
+
+        Assert.assertEquals(message.getId(), tagged.getMoniqueMessage().getId());
+        Assert.assertEquals(64 * 1024,
+                ((String) Converter.payloadFromMessagePack(tagged.getPayload(), Map.class).get("key")).length());
+        Assert.assertTrue("unpacking allocated " + perMessage + " bytes per message", perMessage < 2048);
+    }
+
+    @Test
+    public void testReleaseOfHeapMessageIsNoOp() {
+        MoniqueTaggedMessage tagged = new MoniqueTaggedMessage("tag", message(MSGPACK_TYPE, null));
+        tagged.release();
+        tagged.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExtraReleaseOfPooledMessageFails() {
+        MoniqueTaggedMessage tagged = new MoniqueTaggedMessage("tag", message(MSGPACK_TYPE, null),
+                ByteBuffer.allocate(0), () -> {
+        });
+        tagged.release();
+        tagged.release();
+    }
+
+    private static MoniqueMessage message(String encoding, byte[] data) {
+        return new MoniqueMessage("id", "pid", "creator", 1, 2, "spec", encoding, "type", data);
+    }
+}
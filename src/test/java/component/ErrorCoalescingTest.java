@@ -0,0 +1,80 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+import protocol.MoniqueError;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+public class ErrorCoalescingTest {
+
+    private static final String FIRST = "tcp://127.0.0.1:19421";
+
+    private static final String SECOND = "tcp://127.0.0.1:19422";
+
+    @Test
+    public void testIdenticalErrorsAreCoalesced() {
+        MoniqueComponent.ErrorManager manager = new MoniqueComponent.ErrorManager();
+        MoniqueComponent.IdentifiedMoniqueError first = error("task", 1, "failed");
+        manager.collect(first);
+        manager.collect(error("task", 1, "failed"));
+        manager.collect(error("task", 1, "failed"));
+
+        Assert.assertEquals(3, first.getCount());
+        Assert.assertEquals(3, manager.statistics().getReceived());
+        Assert.assertEquals(2, manager.statistics().getCoalesced());
+    }
+
+    @Test
+    public void testErrorsDifferingInAnyKeyPartAreKeptApart() {
+        MoniqueComponent.ErrorManager manager = new MoniqueComponent.ErrorManager();
+        MoniqueComponent.IdentifiedMoniqueError first = error("task", 1, "failed");
+        manager.collect(first);
+        manager.collect(error("task", 2, "failed"));
+        manager.collect(error("task", 1, "other"));
+        manager.collect(error("other", 1, "failed"));
+
+        Assert.assertEquals(1, first.getCount());
+        Assert.assertEquals(4, manager.statistics().getReceived());
+        Assert.assertEquals(0, manager.statistics().getCoalesced());
+        Assert.assertEquals(0, manager.statistics().getSuppressed());
+    }
+
+    @Test
+    public void testDistinctErrorsOverLimitAreSuppressed() {
+        MoniqueComponent.ErrorManager manager = new MoniqueComponent.ErrorManager();
+        for (int i = 0; i < 1005; i++) {
+            manager.collect(error("task", 1, "failed " + i));
+        }
+        Assert.assertEquals(5, manager.statistics().getSuppressed());
+    }
+
+    @Test
+    public void testErrorNotSentStaysPending() throws IOException {
+        MoniqueComponent.ErrorManager manager = new MoniqueComponent.ErrorManager();
+        MoniqueComponent.IdentifiedMoniqueError first = error("task", 1, "failed");
+        manager.collect(first);
+        try (ZContext context = new ZContext()) {
+            // nothing listens on endpoints, so every send fails
+            SchedulerRouter router = new SchedulerRouter(Arrays.asList(FIRST, SECOND), () -> {
+                ZMQ.Socket socket = context.createSocket(ZMQ.PUSH);
+                socket.setSendTimeOut(50);
+                socket.setLinger(0);
+                return socket;
+            }, SchedulerRouter.Routing.HASH, 0);
+            manager.flush(router, new TokenBucket(1000, 10));
+        }
+        manager.collect(error("task", 1, "failed"));
+
+        Assert.assertEquals(0, manager.statistics().getSent());
+        Assert.assertEquals(1, manager.statistics().getCoalesced());
+        Assert.assertEquals(2, first.getCount());
+    }
+
+    private static MoniqueComponent.IdentifiedMoniqueError error(String taskId, int code, String message) {
+        return new MoniqueComponent.IdentifiedMoniqueError(taskId, new MoniqueError(code, message));
+    }
+}
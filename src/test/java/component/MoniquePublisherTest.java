@@ -0,0 +1,145 @@
+package component;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import protocol.MoniqueMessage;
+import protocol.MoniqueTaggedMessage;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class MoniquePublisherTest {
+
+    private final BlockingQueue<MoniqueTaggedMessage> queue = new LinkedBlockingQueue<>();
+
+    private final MoniquePublisher publisher = new MoniquePublisher(queue::poll);
+
+    private RecordingSubscriber subscriber;
+
+    @After
+    public void tearDown() {
+        if (subscriber != null && subscriber.subscription != null) {
+            subscriber.subscription.cancel();
+        }
+    }
+
+    @Test
+    public void testDeliveryIsBoundedByDemand() throws InterruptedException {
+        fill(10);
+        subscriber = subscribe(3);
+
+        Thread.sleep(300);
+        Assert.assertEquals(3, subscriber.received.size());
+        Assert.assertEquals(7, queue.size());
+
+        subscriber.subscription.request(2);
+        Thread.sleep(300);
+        Assert.assertEquals(5, subscriber.received.size());
+        Assert.assertEquals(5, queue.size());
+    }
+
+    @Test
+    public void testNothingIsDeliveredAfterCancel() throws InterruptedException {
+        subscriber = subscribe(Long.MAX_VALUE);
+        fill(2);
+        Assert.assertNotNull(subscriber.received.poll(5, TimeUnit.SECONDS));
+        Assert.assertNotNull(subscriber.received.poll(5, TimeUnit.SECONDS));
+
+        subscriber.subscription.cancel();
+        Thread.sleep(300);
+        fill(2);
+        Thread.sleep(300);
+
+        Assert.assertTrue(subscriber.received.isEmpty());
+        Assert.assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testNonPositiveRequestSignalsError() throws InterruptedException {
+        fill(1);
+        subscriber = subscribe(0);
+
+        Throwable error = subscriber.error.poll(5, TimeUnit.SECONDS);
+        Assert.assertTrue(error instanceof IllegalArgumentException);
+        Thread.sleep(200);
+        Assert.assertTrue(subscriber.received.isEmpty());
+        Assert.assertEquals(1, queue.size());
+    }
+
+    @Test
+    public void testMessageIsReleasedWhenOnNextThrows() throws InterruptedException {
+        AtomicInteger recycled = new AtomicInteger();
+        queue.add(new MoniqueTaggedMessage("tag", new MoniqueMessage(), ByteBuffer.allocate(0),
+                recycled::incrementAndGet));
+        fill(1);
+        subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        subscriber.failure.set(new IllegalStateException("handler failed"));
+        publisher.subscribe(subscriber);
+
+        Assert.assertNotNull(subscriber.received.poll(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+
+        Assert.assertEquals(1, recycled.get());
+        Assert.assertTrue("subscription has to be cancelled", subscriber.received.isEmpty());
+        Assert.assertEquals(1, queue.size());
+    }
+
+    private RecordingSubscriber subscribe(long request) {
+        RecordingSubscriber subscriber = new RecordingSubscriber(request);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    private void fill(int count) {
+        for (int i = 0; i < count; i++) {
+            queue.add(new MoniqueTaggedMessage("tag", new MoniqueMessage()));
+        }
+    }
+
+    private static class RecordingSubscriber implements Subscriber<MoniqueTaggedMessage> {
+
+        private final long request;
+
+        private final BlockingQueue<MoniqueTaggedMessage> received = new LinkedBlockingQueue<>();
+
+        private final BlockingQueue<Throwable> error = new LinkedBlockingQueue<>();
+
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private volatile Subscription subscription;
+
+        RecordingSubscriber(long request) {
+            this.request = request;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(request);
+        }
+
+        @Override
+        public void onNext(MoniqueTaggedMessage message) {
+            received.add(message);
+            if (failure.get() != null) {
+                throw failure.get();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.add(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import protocol.MoniqueMessage;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MoniqueSubscriberTest {
+
+    private final BlockingQueue<CompletableFuture<Boolean>> outgoing = new LinkedBlockingQueue<>(2);
+
+    private final MoniqueSubscriber subscriber =
+            new MoniqueSubscriber((message, future) -> outgoing.put(future), 3);
+
+    private final RecordingSubscription subscription = new RecordingSubscription();
+
+    @Test
+    public void testWindowIsRequestedOnSubscribe() {
+        subscriber.onSubscribe(subscription);
+        Assert.assertEquals(3, subscription.requested.get());
+    }
+
+    @Test
+    public void testNextMessageIsRequestedOnlyAfterSend() throws InterruptedException {
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(new MoniqueMessage());
+        Assert.assertEquals(3, subscription.requested.get());
+
+        outgoing.take().complete(true);
+        Assert.assertEquals(4, subscription.requested.get());
+    }
+
+    @Test
+    public void testOnNextWaitsForFreeSpaceInsteadOfDropping() throws InterruptedException {
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(new MoniqueMessage());
+        subscriber.onNext(new MoniqueMessage());
+
+        Thread publisher = new Thread(() -> subscriber.onNext(new MoniqueMessage()));
+        publisher.start();
+        publisher.join(300);
+        Assert.assertTrue("onNext has to wait while queue is full", publisher.isAlive());
+        Assert.assertEquals(3, subscription.requested.get());
+
+        outgoing.take().complete(true);
+        publisher.join(5000);
+        Assert.assertFalse(publisher.isAlive());
+        Assert.assertEquals(2, outgoing.size());
+        Assert.assertFalse(subscription.cancelled.get());
+    }
+
+    @Test
+    public void testFailedSendCancelsSubscription() throws InterruptedException {
+        subscriber.onSubscribe(subscription);
+        subscriber.onNext(new MoniqueMessage());
+
+        outgoing.poll(1, TimeUnit.SECONDS).complete(false);
+
+        Assert.assertTrue(subscription.cancelled.get());
+        Assert.assertEquals(3, subscription.requested.get());
+    }
+
+    @Test
+    public void testSecondSubscriptionIsCancelled() {
+        subscriber.onSubscribe(subscription);
+        RecordingSubscription second = new RecordingSubscription();
+        subscriber.onSubscribe(second);
+
+        Assert.assertTrue(second.cancelled.get());
+        Assert.assertEquals(0, second.requested.get());
+    }
+
+    private static class RecordingSubscription implements Subscription {
+
+        private final AtomicLong requested = new AtomicLong();
+
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+
+        @Override
+        public void request(long n) {
+            requested.addAndGet(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled.set(true);
+        }
+    }
+}
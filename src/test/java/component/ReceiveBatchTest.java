@@ -0,0 +1,132 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ReceiveBatchTest {
+
+    @Test
+    public void testFullBatchIsReturnedWithoutWaiting() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>(Arrays.asList(1, 2, 3, 4, 5));
+
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.receiveBatch(queue, 3, 10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3), batch);
+        Assert.assertEquals(2, queue.size());
+        Assert.assertTrue(elapsedMillis(startedAt) < 1000);
+    }
+
+    @Test
+    public void testPartialBatchIsReturnedAfterTimeout() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>(Arrays.asList(1, 2));
+
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.receiveBatch(queue, 10, 200, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(Arrays.asList(1, 2), batch);
+        Assert.assertTrue(elapsedMillis(startedAt) >= 190);
+    }
+
+    @Test
+    public void testLateMessagesJoinBatch() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 3; i++) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.add(i);
+            }
+        });
+        producer.start();
+
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.receiveBatch(queue, 3, 5, TimeUnit.SECONDS);
+        producer.join();
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2), batch);
+        Assert.assertTrue(elapsedMillis(startedAt) < 5000);
+    }
+
+    @Test
+    public void testZeroTimeoutTakesOnlyAvailableMessages() throws InterruptedException {
+        Assert.assertTrue(MoniqueComponent.receiveBatch(new LinkedBlockingQueue<>(), 10, 0, TimeUnit.SECONDS)
+                .isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveMaxIsRejected() throws InterruptedException {
+        MoniqueComponent.receiveBatch(new LinkedBlockingQueue<>(), 0, 1, TimeUnit.SECONDS);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeoutIsRejected() throws InterruptedException {
+        MoniqueComponent.receiveBatch(new LinkedBlockingQueue<>(), 1, -1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testPollBatchBlocksOnEmptyQueueWithZeroTimeout() throws InterruptedException {
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.pollBatch(new LinkedBlockingQueue<>(), 10, 0, TimeUnit.SECONDS,
+                200, TimeUnit.MILLISECONDS);
+
+        Assert.assertNull(batch);
+        Assert.assertTrue(elapsedMillis(startedAt) >= 190);
+    }
+
+    @Test
+    public void testPollBatchWaitsForFirstMessage() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>();
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.add(1);
+            queue.add(2);
+        });
+        producer.start();
+
+        List<Integer> batch = MoniqueComponent.pollBatch(queue, 10, 0, TimeUnit.SECONDS, 5, TimeUnit.SECONDS);
+        producer.join();
+
+        Assert.assertNotNull(batch);
+        Assert.assertEquals(Integer.valueOf(1), batch.get(0));
+    }
+
+    @Test
+    public void testPollBatchWaitsForRestAfterFirstMessage() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>(Arrays.asList(1, 2));
+
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.pollBatch(queue, 10, 200, TimeUnit.MILLISECONDS,
+                5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList(1, 2), batch);
+        Assert.assertTrue(elapsedMillis(startedAt) >= 190);
+    }
+
+    @Test
+    public void testPollBatchReturnsFullBatchWithoutWaiting() throws InterruptedException {
+        LinkedBlockingQueue<Integer> queue = new LinkedBlockingQueue<>(Arrays.asList(1, 2, 3));
+
+        long startedAt = System.nanoTime();
+        List<Integer> batch = MoniqueComponent.pollBatch(queue, 2, 10, TimeUnit.SECONDS, 10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(Arrays.asList(1, 2), batch);
+        Assert.assertTrue(elapsedMillis(startedAt) < 1000);
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,228 @@
+package component;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+import protocol.MoniqueMessage;
+import protocol.MoniqueTaggedMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static component.Constant.DATA;
+import static component.Constant.MSGPACK_TYPE;
+
+public class ReceivePipelineTest {
+
+    private static final String ADDRESS = "tcp://127.0.0.1:19411";
+
+    private static final String SPEC = "spec";
+
+    private final ZContext context = new ZContext();
+
+    private final List<Thread> threads = new ArrayList<>();
+
+    private ZMQ.Socket publisher;
+
+    @After
+    public void tearDown() throws InterruptedException {
+        threads.forEach(Thread::interrupt);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        context.close();
+    }
+
+    @Test
+    public void testPooledBuffersAreReused() throws Exception {
+        BlockingQueue<MoniqueTaggedMessage> dispatch = new LinkedBlockingQueue<>();
+        BufferPool pool = new BufferPool(64, 4096);
+        start(new ReceivePipeline(Collections.singletonList(SPEC), 1, 16, dispatch, null), pool);
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 10; i++) {
+                send(SPEC, "message " + i);
+            }
+            for (int i = 0; i < 10; i++) {
+                MoniqueTaggedMessage message = dispatch.poll(5, TimeUnit.SECONDS);
+                Assert.assertNotNull(message);
+                Assert.assertEquals("message " + i, payload(message));
+                message.release();
+            }
+        }
+        Assert.assertTrue("allocated " + pool.getAllocated() + " buffers",
+                pool.getAllocated() > 0 && pool.getAllocated() <= 22);
+    }
+
+    @Test
+    public void testMessageLargerThanPoolBufferIsReceivedOnHeap() throws Exception {
+        BlockingQueue<MoniqueTaggedMessage> dispatch = new LinkedBlockingQueue<>();
+        BufferPool pool = new BufferPool(4, 256);
+        start(new ReceivePipeline(Collections.singletonList(SPEC), 1, 16, dispatch, null), pool);
+
+        char[] large = new char[4096];
+        Arrays.fill(large, 'x');
+        send(SPEC, new String(large));
+        send(SPEC, "small");
+
+        MoniqueTaggedMessage first = dispatch.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(first);
+        Assert.assertNull(first.getPayload());
+        Assert.assertEquals(new String(large), Converter.payloadFromMessagePack(
+                first.getMoniqueMessage().getData(), Map.class).get("value"));
+        first.release();
+
+        MoniqueTaggedMessage second = dispatch.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(second);
+        Assert.assertEquals("small", payload(second));
+        second.release();
+    }
+
+    @Test
+    public void testStagesHandOffMatchingMessages() throws Exception {
+        BlockingQueue<MoniqueTaggedMessage> dispatch = new LinkedBlockingQueue<>();
+        ReceivePipeline pipeline = new ReceivePipeline(Collections.singletonList(SPEC), 1, 16, dispatch, null);
+        start(pipeline, null);
+
+        for (int i = 0; i < 20; i++) {
+            send(i % 2 == 0 ? SPEC : "other", "message " + i);
+        }
+        for (int i = 0; i < 20; i += 2) {
+            MoniqueTaggedMessage message = dispatch.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(message);
+            Assert.assertEquals("message " + i, payload(message));
+            Assert.assertNull(message.getPayload());
+        }
+        Assert.assertNull(dispatch.poll(200, TimeUnit.MILLISECONDS));
+
+        Map<String, MoniqueComponent.StageStatistics> statistics = statistics(pipeline);
+        Assert.assertEquals(20, statistics.get("read").getProcessed());
+        Assert.assertEquals(20, statistics.get("filter").getProcessed());
+        Assert.assertEquals(10, statistics.get("decode").getProcessed());
+        Assert.assertEquals(10, statistics.get("dispatch").getProcessed());
+        Assert.assertEquals(16, statistics.get("filter").getCapacity());
+        Assert.assertEquals(Integer.MAX_VALUE, statistics.get("dispatch").getCapacity());
+    }
+
+    @Test
+    public void testFullStageBlocksPreviousStage() throws Exception {
+        BlockingQueue<MoniqueTaggedMessage> dispatch = new ArrayBlockingQueue<>(1);
+        ReceivePipeline pipeline = new ReceivePipeline(Collections.singletonList(SPEC), 1, 2, dispatch, null);
+        start(pipeline, null);
+
+        for (int i = 0; i < 20; i++) {
+            send(SPEC, "message " + i);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        Map<String, MoniqueComponent.StageStatistics> statistics = statistics(pipeline);
+        while (statistics.get("filter").getSize() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            statistics = statistics(pipeline);
+        }
+        Thread.sleep(200);
+        statistics = statistics(pipeline);
+        Assert.assertEquals(1, statistics.get("dispatch").getSize());
+        Assert.assertEquals(2, statistics.get("decode").getSize());
+        Assert.assertEquals(2, statistics.get("filter").getSize());
+        Assert.assertTrue("socket has to stop reading while filter is full",
+                statistics.get("read").getProcessed() < 20);
+
+        for (int i = 0; i < 20; i++) {
+            MoniqueTaggedMessage message = dispatch.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(message);
+            Assert.assertEquals("message " + i, payload(message));
+        }
+    }
+
+    @Test
+    public void testSeveralDecodeThreadsDispatchEveryMessage() throws Exception {
+        BlockingQueue<MoniqueTaggedMessage> dispatch = new LinkedBlockingQueue<>();
+        BufferPool pool = new BufferPool(64, 4096);
+        ReceivePipeline pipeline = new ReceivePipeline(Collections.singletonList(SPEC), 4, 16, dispatch, null);
+        Assert.assertEquals(5, pipeline.getThreads().size());
+        start(pipeline, pool);
+
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            send(SPEC, "message " + i);
+            expected.add("message " + i);
+        }
+        Set<String> received = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            MoniqueTaggedMessage message = dispatch.poll(5, TimeUnit.SECONDS);
+            Assert.assertNotNull(message);
+            received.add(payload(message));
+            message.release();
+        }
+        Assert.assertEquals(expected, received);
+        Assert.assertEquals(200, statistics(pipeline).get("decode").getProcessed());
+    }
+
+    @Test
+    public void testReceiveStatisticsOfComponent() {
+        Assert.assertTrue(MoniqueComponent.getReceiveStatistics().isEmpty());
+        ReceivePipeline pipeline = new ReceivePipeline(Collections.singletonList(SPEC), 1, 8,
+                new ArrayBlockingQueue<>(4), null);
+        MoniqueComponent.receivePipeline = pipeline;
+        try {
+            List<MoniqueComponent.StageStatistics> statistics = MoniqueComponent.getReceiveStatistics();
+            Assert.assertEquals(Arrays.asList("read", "filter", "decode", "dispatch"),
+                    statistics.stream().map(MoniqueComponent.StageStatistics::getName).collect(Collectors.toList()));
+            Assert.assertEquals(8, statistics.get(1).getCapacity());
+            Assert.assertEquals(8, statistics.get(2).getCapacity());
+            Assert.assertEquals(4, statistics.get(3).getCapacity());
+        } finally {
+            MoniqueComponent.receivePipeline = null;
+        }
+    }
+
+    private static Map<String, MoniqueComponent.StageStatistics> statistics(ReceivePipeline pipeline) {
+        return pipeline.statistics().stream()
+                .collect(Collectors.toMap(MoniqueComponent.StageStatistics::getName, Function.identity()));
+    }
+
+    private void start(ReceivePipeline pipeline, BufferPool pool) throws InterruptedException {
+        publisher = context.createSocket(ZMQ.PUB);
+        publisher.setSndHWM(0);
+        publisher.bind(ADDRESS);
+        ZMQ.Socket subscriber = context.createSocket(ZMQ.SUB);
+        subscriber.setReceiveTimeOut(100);
+        if (pool != null) {
+            subscriber.setMsgAllocator(pool);
+        }
+        subscriber.subscribe("");
+        subscriber.connect(ADDRESS);
+        threads.addAll(pipeline.getThreads());
+        threads.add(new Thread(() -> pipeline.read(subscriber, pool)));
+        threads.forEach(Thread::start);
+        Thread.sleep(300);
+    }
+
+    private void send(String spec, String value) throws IOException {
+        MoniqueMessage message = new MoniqueMessage("pid", "creator", 0, spec, MSGPACK_TYPE, DATA, null);
+        publisher.sendMore(TagUtils.createMessageTag(message));
+        publisher.send(Converter.messageToMessagePack(message, Collections.singletonMap("value", value)));
+    }
+
+    private static String payload(MoniqueTaggedMessage message) throws IOException {
+        if (message.getPayload() == null) {
+            return (String) Converter.payloadFromMessagePack(message.getMoniqueMessage().getData(), Map.class)
+                    .get("value");
+        }
+        return (String) Converter.payloadFromMessagePack(message.getPayload(), Map.class).get("value");
+    }
+}
@@ -0,0 +1,144 @@
+package component;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.zeromq.ZContext;
+import org.zeromq.ZMQ;
+import org.zeromq.ZMsg;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class SchedulerRouterTest {
+
+    private static final String FIRST = "tcp://127.0.0.1:19401";
+
+    private static final String SECOND = "tcp://127.0.0.1:19402";
+
+    private ZContext context;
+
+    @Before
+    public void setUp() {
+        context = new ZContext();
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void testSameKeyIsRoutedToSameEndpoint() throws InterruptedException {
+        ZMQ.Socket first = bind(FIRST);
+        ZMQ.Socket second = bind(SECOND);
+        SchedulerRouter router = router(SchedulerRouter.Routing.HASH);
+        Thread.sleep(200);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(router.send("pid" + (i % 10), "tag" + (i % 10), new byte[]{(byte) i}));
+        }
+
+        Set<String> firstKeys = receiveTags(first);
+        Set<String> secondKeys = receiveTags(second);
+        Assert.assertEquals(10, firstKeys.size() + secondKeys.size());
+        Assert.assertFalse(firstKeys.isEmpty());
+        Assert.assertFalse(secondKeys.isEmpty());
+    }
+
+    @Test
+    public void testRoundRobinUsesAllEndpoints() throws InterruptedException {
+        ZMQ.Socket first = bind(FIRST);
+        ZMQ.Socket second = bind(SECOND);
+        SchedulerRouter router = router(SchedulerRouter.Routing.ROUND_ROBIN);
+        Thread.sleep(200);
+
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(router.send("pid", "tag" + i, new byte[]{(byte) i}));
+        }
+
+        Assert.assertEquals(2, receiveTags(first).size());
+        Assert.assertEquals(2, receiveTags(second).size());
+    }
+
+    @Test
+    public void testUnavailableEndpointFailsOver() throws InterruptedException {
+        ZMQ.Socket first = bind(FIRST);
+        SchedulerRouter router = router(SchedulerRouter.Routing.HASH);
+        Thread.sleep(200);
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertTrue(router.send("pid" + i, "tag" + i, new byte[]{(byte) i}));
+        }
+
+        Assert.assertEquals(20, receiveTags(first).size());
+    }
+
+    @Test
+    public void testNothingIsLostBeforeEndpointIsEjected() throws InterruptedException {
+        ZMQ.Socket first = bind(FIRST);
+        ZMQ.Socket second = bind(SECOND);
+        SchedulerRouter router = router(SchedulerRouter.Routing.HASH);
+        Thread.sleep(200);
+        second.close();
+        Thread.sleep(200);
+
+        for (int i = 0; i < 50; i++) {
+            Assert.assertTrue(router.send("pid" + i, "tag" + i, new byte[]{(byte) i}));
+        }
+
+        Assert.assertEquals(50, receiveTags(first).size());
+    }
+
+    @Test
+    public void testOnlyEndpointIsTriedWhenEjected() throws InterruptedException {
+        SchedulerRouter router = new SchedulerRouter(Arrays.asList(FIRST), () -> {
+            // single endpoint queues messages while disconnected, so sends fail only at high-water mark
+            ZMQ.Socket socket = pushSocket();
+            socket.setSndHWM(1);
+            return socket;
+        }, SchedulerRouter.Routing.HASH, 60000);
+        int failures = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!router.send("pid", "queued" + i, new byte[]{(byte) i})) {
+                failures++;
+            }
+        }
+        Assert.assertTrue(failures >= 3);
+        ZMQ.Socket first = bind(FIRST);
+        Thread.sleep(500);
+
+        Assert.assertTrue(router.send("pid", "tag", new byte[]{1}));
+        Assert.assertTrue(receiveTags(first).contains("tag"));
+    }
+
+    private SchedulerRouter router(SchedulerRouter.Routing routing) {
+        return new SchedulerRouter(Arrays.asList(FIRST, SECOND), this::pushSocket, routing, 60000);
+    }
+
+    private ZMQ.Socket pushSocket() {
+        ZMQ.Socket socket = context.createSocket(ZMQ.PUSH);
+        socket.setSendTimeOut(50);
+        socket.setLinger(0);
+        return socket;
+    }
+
+    private ZMQ.Socket bind(String address) {
+        ZMQ.Socket socket = context.createSocket(ZMQ.PULL);
+        socket.setReceiveTimeOut(200);
+        socket.setLinger(0);
+        socket.bind(address);
+        return socket;
+    }
+
+    private Set<String> receiveTags(ZMQ.Socket socket) {
+        Set<String> tags = new HashSet<>();
+        ZMsg zMsg;
+        while ((zMsg = ZMsg.recvMsg(socket)) != null) {
+            tags.add(zMsg.getFirst().getString(ZMQ.CHARSET));
+        }
+        return tags;
+    }
+}
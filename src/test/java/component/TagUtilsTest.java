@@ -0,0 +1,89 @@
+package component;
+
+import exception.InvalidValueException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TagUtilsTest {
+
+    private static final List<byte[]> SPECIFICATIONS = Arrays.asList(bytes("spec"), bytes("other"));
+
+    @Test
+    public void testMatchingSpecification() {
+        Assert.assertTrue(TagUtils.specMatches(tag("data:spec:id:pid:creator"), SPECIFICATIONS));
+        Assert.assertTrue(TagUtils.specMatches(tag("data:other:id:pid:creator"), SPECIFICATIONS));
+    }
+
+    @Test
+    public void testDifferentSpecification() {
+        Assert.assertFalse(TagUtils.specMatches(tag("data:unknown:id:pid:creator"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spe:id:pid:creator"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:specs:id:pid:creator"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec:id:pid:creator"), Collections.emptyList()));
+    }
+
+    @Test
+    public void testSpecificationIsNotMatchedInOtherParts() {
+        Assert.assertFalse(TagUtils.specMatches(tag("spec:data:id:pid:creator"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:id:spec:pid:creator"), SPECIFICATIONS));
+    }
+
+    @Test
+    public void testMalformedTag() {
+        Assert.assertFalse(TagUtils.specMatches(tag("spec"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag(""), SPECIFICATIONS));
+    }
+
+    @Test
+    public void testTagWithoutFiveParts() {
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec:x"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec:id:pid"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec:id:pid:"), SPECIFICATIONS));
+        Assert.assertFalse(TagUtils.specMatches(tag("data:spec:id:pid:creator:extra"), SPECIFICATIONS));
+        Assert.assertTrue(TagUtils.specMatches(tag("data:spec::pid:creator"), SPECIFICATIONS));
+    }
+
+    @Test
+    public void testSpecMatchesAgreesWithGetTagPart() {
+        for (String tag : Arrays.asList("data:spec:id:pid:creator", "data:spec:x", "data:spec:id:pid:",
+                "data:spec::pid:creator", "data:spec:id:pid:creator:extra", "data:spec")) {
+            boolean parsed;
+            try {
+                parsed = "spec".equals(TagUtils.getTagPart(tag, TagUtils.TagPart.SPEC));
+            } catch (InvalidValueException e) {
+                parsed = false;
+            }
+            Assert.assertEquals(tag, parsed, TagUtils.specMatches(tag(tag), SPECIFICATIONS));
+        }
+    }
+
+    @Test
+    public void testTagBetweenPositionAndLimit() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        buffer.put(bytes("xx:other:"));
+        int start = buffer.position();
+        buffer.put(bytes("data:spec:id:pid:creator"));
+        int end = buffer.position();
+        buffer.put(bytes(":other:"));
+        buffer.limit(end).position(start);
+
+        Assert.assertTrue(TagUtils.specMatches(buffer, Collections.singletonList(bytes("spec"))));
+        Assert.assertFalse(TagUtils.specMatches(buffer, Collections.singletonList(bytes("other"))));
+        Assert.assertEquals(start, buffer.position());
+    }
+
+    private static ByteBuffer tag(String tag) {
+        return ByteBuffer.wrap(bytes(tag));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
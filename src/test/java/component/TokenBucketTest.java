@@ -0,0 +1,42 @@
+package component;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TokenBucketTest {
+
+    @Test
+    public void testBurstIsAvailableImmediately() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testTokensAreRefilledAtRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 1);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+        Thread.sleep(100);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testTokensDoNotExceedBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 2);
+        Thread.sleep(50);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    public void testBurstIsAtLeastOne() {
+        TokenBucket bucket = new TokenBucket(1, 0);
+        Assert.assertTrue(bucket.tryAcquire());
+        Assert.assertFalse(bucket.tryAcquire());
+    }
+}
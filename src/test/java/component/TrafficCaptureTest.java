@@ -0,0 +1,132 @@
+package component;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrafficCaptureTest {
+
+    private static final int SEGMENT_SIZE = 256;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private Path directory;
+
+    private String path;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("capture");
+        path = directory.resolve("traffic").toString();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        TrafficCapture.deleteSegments(path);
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testRecordsAreReadInOrder() throws IOException {
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, MAX_SEGMENTS)) {
+            for (int i = 0; i < 20; i++) {
+                capture.record(i % 2 == 0 ? TrafficCapture.INCOMING : TrafficCapture.OUTGOING,
+                        bytes("data:spec:" + i + ":pid:creator"), bytes("message " + i));
+            }
+        }
+        Assert.assertTrue("records have to span several segments", Files.exists(TrafficCapture.segmentPath(path, 1)));
+
+        List<TrafficCapture.Record> records = read();
+        Assert.assertEquals(20, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            TrafficCapture.Record record = records.get(i);
+            Assert.assertEquals(i % 2 == 0 ? TrafficCapture.INCOMING : TrafficCapture.OUTGOING, record.direction);
+            Assert.assertArrayEquals(bytes("data:spec:" + i + ":pid:creator"), record.tag);
+            Assert.assertArrayEquals(bytes("message " + i), record.message);
+            if (i > 0) {
+                Assert.assertTrue(record.nanoTime >= records.get(i - 1).nanoTime);
+            }
+        }
+    }
+
+    @Test
+    public void testMessageLargerThanSegmentIsDropped() throws IOException {
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, MAX_SEGMENTS)) {
+            capture.record(TrafficCapture.INCOMING, bytes("tag"), new byte[SEGMENT_SIZE]);
+            capture.record(TrafficCapture.INCOMING, bytes("tag"), bytes("message"));
+        }
+        List<TrafficCapture.Record> records = read();
+        Assert.assertEquals(1, records.size());
+        Assert.assertArrayEquals(bytes("message"), records.get(0).message);
+    }
+
+    @Test
+    public void testStaleSegmentsAreDeleted() throws IOException {
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, MAX_SEGMENTS)) {
+            for (int i = 0; i < 20; i++) {
+                capture.record(TrafficCapture.INCOMING, bytes("old"), bytes("message " + i));
+            }
+        }
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, MAX_SEGMENTS)) {
+            capture.record(TrafficCapture.INCOMING, bytes("new"), bytes("message"));
+        }
+        List<TrafficCapture.Record> records = read();
+        Assert.assertEquals(1, records.size());
+        Assert.assertArrayEquals(bytes("new"), records.get(0).tag);
+    }
+
+    @Test
+    public void testOldestSegmentsAreDeletedOverLimit() throws IOException {
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, 2)) {
+            for (int i = 0; i < 100; i++) {
+                capture.record(TrafficCapture.INCOMING, bytes("tag"), bytes("message " + i));
+            }
+        }
+        List<Integer> segments = TrafficCapture.segments(path);
+        Assert.assertEquals(2, segments.size());
+        Assert.assertTrue("segments have to rotate", segments.get(0) > 0);
+        Assert.assertEquals(segments.get(0) + 1, (int) segments.get(1));
+
+        List<TrafficCapture.Record> records = read();
+        Assert.assertFalse(records.isEmpty());
+        Assert.assertTrue(records.size() < 100);
+        for (int i = 0; i < records.size(); i++) {
+            int expected = 100 - records.size() + i;
+            Assert.assertArrayEquals(bytes("message " + expected), records.get(i).message);
+        }
+    }
+
+    @Test
+    public void testRotatedSegmentsAreDeletedByNextCapture() throws IOException {
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, 2)) {
+            for (int i = 0; i < 100; i++) {
+                capture.record(TrafficCapture.INCOMING, bytes("old"), bytes("message " + i));
+            }
+        }
+        try (TrafficCapture capture = new TrafficCapture(path, SEGMENT_SIZE, 2)) {
+            capture.record(TrafficCapture.INCOMING, bytes("new"), bytes("message"));
+        }
+        Assert.assertEquals(1, TrafficCapture.segments(path).size());
+        List<TrafficCapture.Record> records = read();
+        Assert.assertEquals(1, records.size());
+        Assert.assertArrayEquals(bytes("new"), records.get(0).tag);
+    }
+
+    private List<TrafficCapture.Record> read() throws IOException {
+        List<TrafficCapture.Record> records = new ArrayList<>();
+        TrafficCapture.read(path, records::add);
+        return records;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}